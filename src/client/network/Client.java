@@ -1,43 +1,71 @@
 package client.network;
 
+import common.WireCodec;
+
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.util.function.Consumer;
 
 public class Client {
 
+    // 바이너리 핸드셰이크 응답 대기 시간 (예전 서버는 응답이 없으므로 이 시간 후 텍스트로 진행)
+    private static final int HELLO_TIMEOUT_MS = 2000;
+
     private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
+    private InputStream in;
+    private OutputStream out;
+    private final WireCodec.Decoder decoder = new WireCodec.Decoder();
+    private volatile boolean binary = false;
+    private volatile boolean connected = false;
     private Consumer<String> onMessage;
 
+    // 서버 단조 시계 - 내 단조 시계 (ms), 왕복 시간이 가장 짧았던 측정값을 씀
+    private volatile long clockOffset;
+    private volatile long clockRtt = Long.MAX_VALUE;
+
     public boolean connect(String host, int port, Consumer<String> onMessage) {
+        return connect(host, port, onMessage, false);
+    }
+
+    /**
+     * 🔵 서버 접속
+     * @param useBinary true면 바이너리 프로토콜 협상 시도 (서버가 지원 안 하면 텍스트로 계속)
+     */
+    public boolean connect(String host, int port, Consumer<String> onMessage, boolean useBinary) {
         this.onMessage = onMessage;
 
         try {
             socket = new Socket(host, port);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
 
             System.out.println("클라이언트 접속 성공!");
 
+            if (useBinary) {
+                negotiateBinary();
+            }
+
+            connected = true;
+
             // 서버 → 클라 수신 스레드
             Thread listener = new Thread(() -> {
                 try {
                     String msg;
-                    while ((msg = in.readLine()) != null) {
-                        Consumer<String> handler = this.onMessage;
-                        if (handler != null) {
-                            handler.accept(msg);
-                        }
+                    while ((msg = readMessage()) != null) {
+                        deliver(msg);
                     }
-                } catch (IOException e) {
+                } catch (IOException | IllegalArgumentException e) {
                     System.out.println("서버 연결 끊김");
+                } finally {
+                    connected = false;
                 }
             });
             listener.setDaemon(true);
             listener.start();
 
+            syncClock();
+
             return true;
 
         } catch (IOException e) {
@@ -46,14 +74,117 @@ public class Client {
         }
     }
 
+    /** 바이너리 프로토콜 협상 (응답 전에 온 메시지는 그대로 전달) */
+    private void negotiateBinary() throws IOException {
+        send(WireCodec.HELLO_BINARY);
+        socket.setSoTimeout(HELLO_TIMEOUT_MS);
+        try {
+            String msg;
+            while ((msg = readMessage()) != null) {
+                if (WireCodec.HELLO_OK_BINARY.equals(msg)) {
+                    // 서버는 이 응답 직후부터 바이너리로 보냄
+                    decoder.setBinary(true);
+                    binary = true;
+                    break;
+                }
+                if (msg.startsWith("HELLO_OK|")) break; // 서버가 텍스트 유지
+                deliver(msg);
+            }
+        } catch (SocketTimeoutException e) {
+            System.out.println("바이너리 프로토콜 미지원 서버 → 텍스트로 진행");
+        } finally {
+            socket.setSoTimeout(0);
+        }
+        System.out.println("프로토콜: " + (binary ? "바이너리" : "텍스트"));
+    }
+
+    /** 메시지 하나 읽기 (연결 종료 시 null) */
+    private String readMessage() throws IOException {
+        int b;
+        while ((b = in.read()) >= 0) {
+            String msg = decoder.feed((byte) b);
+            if (msg != null) return msg;
+        }
+        return null;
+    }
+
+    private void deliver(String msg) {
+        // 시계 맞추기 응답은 화면으로 보내지 않고 여기서 처리
+        if (msg.startsWith("TIME_SYNC|")) {
+            onTimeSync(msg);
+            return;
+        }
+        Consumer<String> handler = this.onMessage;
+        if (handler != null) {
+            handler.accept(msg);
+        }
+    }
+
+    /** 내 단조 시계 (ms) */
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    /** 🔵 서버와 시계 맞추기 요청 (응답은 onTimeSync에서 처리) */
+    public void syncClock() {
+        send("TIME_SYNC|" + now());
+    }
+
+    /** TIME_SYNC|보낸 시각|서버 시각 → 왕복 시간의 절반만큼 늦게 도착했다고 보고 차이 계산 */
+    private void onTimeSync(String msg) {
+        String[] p = msg.split("\\|");
+        if (p.length < 3) return;
+        try {
+            long sent = Long.parseLong(p[1]);
+            long server = Long.parseLong(p[2]);
+            long received = now();
+            long rtt = received - sent;
+            if (rtt < 0 || rtt > clockRtt) return; // 더 느린 측정값은 버림
+            clockRtt = rtt;
+            clockOffset = server - (sent + rtt / 2);
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    /** 서버와 시계를 맞춘 적 있는지 (예전 서버는 TIME_SYNC에 응답하지 않음) */
+    public boolean isClockSynced() {
+        return clockRtt != Long.MAX_VALUE;
+    }
+
+    /**
+     * 🔵 서버가 보낸 마감 시각(서버 단조 시계 ms)까지 남은 시간 (ms, 지났으면 0)
+     * 시계를 맞춘 적이 없으면 -1 → 호출한 쪽이 기본 길이를 씀
+     */
+    public long remainingUntil(long serverDeadline) {
+        if (!isClockSynced()) return -1;
+        return Math.max(0, serverDeadline - clockOffset - now());
+    }
+
     /** 🔵 메시지 핸들러 교체 (Lobby → GameRoom 전환) */
     public void setMessageHandler(Consumer<String> onMessage) {
         this.onMessage = onMessage;
     }
 
+    /** 서버와 연결되어 있는지 (로비로 돌아갈 때 연결 재사용 여부 판단) */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /** 현재 바이너리 프로토콜을 쓰는 중인지 */
+    public boolean isBinary() {
+        return binary;
+    }
+
     public void send(String msg) {
-        if (out != null) {
-            out.println(msg);
+        if (out == null) return;
+        byte[] bytes = binary ? WireCodec.encodeFrame(msg) : WireCodec.encodeText(msg);
+        synchronized (this) {
+            try {
+                out.write(bytes);
+                out.flush();
+            } catch (IOException e) {
+                System.out.println("전송 실패: " + e.getMessage());
+            }
         }
     }
 
@@ -65,6 +196,27 @@ public class Client {
         send("GET_ROOMS");
     }
 
+    /** 🔵 게임방 나가기 (로비로 돌아가기 전에 호출) */
+    public void leaveRoom() {
+        send("LEAVE_ROOM");
+    }
+
+    /**
+     * 🔵 방 검색 (결과는 ROOM_PAGE로 옴)
+     * @param mode   "ALL" / "CLASSIC" / "SPECIAL"
+     * @param sort   "NEWEST" / "OLDEST"
+     * @param cursor 첫 페이지면 0, 다음 페이지면 이전 ROOM_PAGE의 다음커서
+     */
+    public void queryRooms(String mode, boolean freeOnly, boolean noPassword, String sort, int cursor, int pageSize) {
+        send("ROOM_QUERY|" + mode + "|" + (freeOnly ? 1 : 0) + "|" + (noPassword ? 1 : 0)
+                + "|" + sort + "|" + cursor + "|" + pageSize);
+    }
+
+    /** 🔵 방 목록 델타 구독 (since = 마지막으로 반영한 버전, 처음이면 0) */
+    public void syncRooms(long since) {
+        send("ROOM_SYNC|" + since);
+    }
+
     public void joinRoom(String nickname, String roomId) {
         send("JOIN_ROOM|" + nickname + "|" + roomId);
     }
@@ -72,4 +224,4 @@ public class Client {
     public void requestPlayerList(String roomId) {
         send("GET_PLAYERS|" + roomId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package client.network;
+
+import common.Opcode;
+
+/**
+ * EventDispatcher - Opcode 코드 → 처리기 표 (화면마다 하나씩 만들어 UpdateQueue에 연결)
+ * - 예전: 메시지마다 startsWith를 스무 번 넘게 차례로 비교
+ * - 지금: 표 한 번 조회 (등록 안 된 명령은 무시)
+ * - 서버 ClientHandler의 HANDLERS 표와 같은 방식
+ */
+public final class EventDispatcher implements UpdateQueue.Listener {
+
+    /** 명령 처리기 (화면 스레드에서 불림) */
+    public interface Handler {
+        void handle(ServerEvent event);
+    }
+
+    private final Handler[] handlers = new Handler[256];
+    private Runnable batchEnd;
+
+    /** 🔵 처리기 등록 (같은 명령을 다시 등록하면 교체) */
+    public EventDispatcher on(Opcode op, Handler handler) {
+        handlers[op.code()] = handler;
+        return this;
+    }
+
+    /** 묶음 처리가 끝날 때 할 일 (예: 모아둔 채팅 줄 붙이기) */
+    public EventDispatcher onBatchEnd(Runnable batchEnd) {
+        this.batchEnd = batchEnd;
+        return this;
+    }
+
+    @Override
+    public void onEvent(ServerEvent event) {
+        Handler handler = handlers[event.op().code()];
+        if (handler != null) handler.handle(event);
+    }
+
+    @Override
+    public void onBatchEnd() {
+        if (batchEnd != null) batchEnd.run();
+    }
+}
@@ -0,0 +1,22 @@
+package client.network;
+
+import common.MessageView;
+
+/**
+ * ServerEvent - 서버 메시지 한 줄을 수신 스레드에서 한 번만 해석한 결과
+ * - 필드 해석은 common.MessageView (서버 Command와 같은 구현), 필드 수 제한 없음
+ * - 핸들러는 field()/intField()로 꺼내 씀 → split을 다시 하지 않음
+ * - 만든 뒤 바뀌지 않으므로 스레드 사이로 넘겨도 안전 (수신 스레드 → UpdateQueue → 화면 스레드)
+ */
+public final class ServerEvent extends MessageView {
+
+    private ServerEvent(String line) {
+        super(0);
+        load(line);
+    }
+
+    /** 🔵 한 줄 해석 (표에 없는 명령이면 op() == RAW) */
+    public static ServerEvent parse(String line) {
+        return new ServerEvent(line);
+    }
+}
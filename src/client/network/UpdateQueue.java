@@ -0,0 +1,95 @@
+package client.network;
+
+import common.Opcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * UpdateQueue - 수신 스레드 → 화면 스레드로 메시지를 묶어서 넘기는 대기열
+ * - 예전: 메시지 한 줄마다 Platform.runLater → 채팅이 몰리면 FX 이벤트 큐가 넘치고 플레이어 목록을 몇 번씩 다시 그림
+ * - 지금: 쌓인 메시지를 화면 스레드 작업 한 번에 모두 꺼내 처리 (처리 중 들어온 것은 다음 번에)
+ * - 메시지 해석(ServerEvent.parse)은 수신 스레드에서 한 번만 → 화면 스레드는 처리만 함
+ * - latestOnly로 지정한 명령(PLAYER_LIST 같은 전체 상태)은 한 묶음 안에서 마지막 것만 남김
+ * - 묶음이 끝나면 Listener.onBatchEnd → 화면은 모아둔 채팅 줄을 한 번에 붙임
+ *
+ * 네트워크 패키지가 JavaFX를 모르도록 화면 스레드는 Executor로 받음 (예: Platform::runLater)
+ */
+public final class UpdateQueue implements Consumer<String> {
+
+    /** 화면 쪽 수신자 (화면 스레드에서만 불림) */
+    public interface Listener {
+        void onEvent(ServerEvent event);
+
+        /** 이번 묶음 처리 끝 → 모아둔 화면 변경을 한 번에 반영 */
+        default void onBatchEnd() {}
+    }
+
+    private final Executor uiThread;
+    // Opcode 코드 → latestOnly 안에서 몇 번째인지 (-1 = 해당 없음)
+    private final int[] latestKind = new int[256];
+    private final int latestCount;
+    private final Queue<ServerEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile Listener listener;
+
+    /**
+     * @param uiThread   화면 스레드 실행기
+     * @param latestOnly 한 묶음 안에서 마지막 것만 처리할 명령 (예: PLAYER_LIST)
+     */
+    public UpdateQueue(Executor uiThread, Opcode... latestOnly) {
+        this.uiThread = uiThread;
+        this.latestCount = latestOnly.length;
+        Arrays.fill(latestKind, -1);
+        for (int k = 0; k < latestOnly.length; k++) latestKind[latestOnly[k].code()] = k;
+    }
+
+    /** 🔵 메시지를 받을 화면 교체 (로비 ↔ 게임방), 묶음 처리 중에 바꾸면 남은 메시지부터 새 화면으로 감 */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** 🔵 수신 스레드에서 호출 → 여기서 해석하고, 화면 스레드 작업은 묶음마다 한 번만 예약 */
+    @Override
+    public void accept(String msg) {
+        pending.add(ServerEvent.parse(msg));
+        if (scheduled.compareAndSet(false, true)) uiThread.execute(this::drain);
+    }
+
+    private void drain() {
+        List<ServerEvent> batch = new ArrayList<>();
+        ServerEvent event;
+        while ((event = pending.poll()) != null) batch.add(event);
+        // 꺼낸 뒤 내려놓음 → 처리 중(대화상자 대기 포함) 들어온 메시지는 다음 묶음으로 예약됨
+        scheduled.set(false);
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) uiThread.execute(this::drain);
+
+        // 전체 상태 메시지는 종류마다 마지막 위치만 기억
+        int[] last = new int[latestCount];
+        for (int i = 0; i < batch.size(); i++) {
+            int kind = latestKind[batch.get(i).op().code()];
+            if (kind >= 0) last[kind] = i;
+        }
+
+        Listener current = null;
+        for (int i = 0; i < batch.size(); i++) {
+            event = batch.get(i);
+            int kind = latestKind[event.op().code()];
+            if (kind >= 0 && last[kind] != i) continue; // 뒤에 같은 종류가 또 있음 → 건너뜀
+
+            Listener l = listener;
+            if (l != current) {
+                if (current != null) current.onBatchEnd();
+                current = l;
+            }
+            if (l != null) l.onEvent(event);
+        }
+        if (current != null) current.onBatchEnd();
+    }
+}
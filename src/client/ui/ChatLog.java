@@ -0,0 +1,114 @@
+package client.ui;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayDeque;
+
+/**
+ * ChatLog - 채팅창(ListView)에 보이는 줄 목록, 정해진 줄 수만 들고 있는 원형 버퍼
+ * - 예전: TextArea.appendText → 붙일 때마다 전체 글자를 다시 다루고, 게임이 길어질수록 메모리/레이아웃 비용이 계속 늘어남
+ * - 지금: 한 줄 = 항목 하나, ListView는 화면에 보이는 줄만 셀로 그림 → 메시지 하나 붙이는 비용이 일정
+ * - 가득 차면 가장 오래된 줄부터 밀려나 보관함(archive)으로 감 → loadOlder로 다시 불러올 수 있음
+ *   (보관함도 상한이 있어서 그보다 오래된 줄은 버림)
+ * - FX 스레드에서만 다룰 것
+ */
+final class ChatLog extends ObservableListBase<String> {
+
+    private final int archiveLimit;
+    private String[] ring;   // 보이는 줄 (head부터 size개)
+    private int head;
+    private int size;
+    private final ArrayDeque<String> archive = new ArrayDeque<>(); // 밀려난 줄 (마지막이 가장 최근)
+
+    /**
+     * @param capacity     평소 보이는 최대 줄 수
+     * @param archiveLimit 밀려난 줄을 보관하는 최대 줄 수 (0이면 보관 안 함)
+     */
+    ChatLog(int capacity, int archiveLimit) {
+        this.ring = new String[capacity];
+        this.archiveLimit = archiveLimit;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return ring[(head + index) % ring.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** 🔵 텍스트 붙이기 ("\n"으로 줄을 나눔, 끝의 "\n"은 줄바꿈 표시일 뿐 빈 줄로 치지 않음) → 변경 알림 한 번 */
+    void append(String text) {
+        if (text.isEmpty()) return;
+        int end = text.endsWith("\n") ? text.length() - 1 : text.length();
+
+        beginChange();
+        try {
+            int start = 0;
+            while (true) {
+                int nl = text.indexOf('\n', start);
+                if (nl < 0 || nl > end) nl = end;
+                addLine(text.substring(start, nl));
+                if (nl >= end) break;
+                start = nl + 1;
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    private void addLine(String line) {
+        if (size == ring.length) {
+            // 가득 참 → 가장 오래된 줄을 보관함으로
+            String oldest = ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            nextRemove(0, oldest);
+            archive(oldest);
+        }
+        ring[(head + size) % ring.length] = line;
+        size++;
+        nextAdd(size - 1, size);
+    }
+
+    private void archive(String line) {
+        if (archiveLimit <= 0) return;
+        if (archive.size() == archiveLimit) archive.pollFirst();
+        archive.addLast(line);
+    }
+
+    /** 보관함에 남은 줄 수 ("이전 대화" 버튼 표시용) */
+    int olderCount() {
+        return archive.size();
+    }
+
+    /**
+     * 🔵 보관함에서 최근 것부터 최대 n줄을 목록 맨 앞에 다시 붙임
+     * 자리가 모자라면 보이는 줄 수 상한을 늘림 (불러온 줄이 새 줄 때문에 바로 다시 밀려나지 않도록)
+     * @return 실제로 불러온 줄 수
+     */
+    int loadOlder(int n) {
+        int count = Math.min(n, archive.size());
+        if (count == 0) return 0;
+
+        String[] grown = new String[Math.max(ring.length, size + count)];
+        for (int i = 0; i < size; i++) {
+            grown[count + i] = ring[(head + i) % ring.length];
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            grown[i] = archive.pollLast();
+        }
+        ring = grown;
+        head = 0;
+        size += count;
+
+        beginChange();
+        nextAdd(0, count);
+        endChange();
+        return count;
+    }
+}
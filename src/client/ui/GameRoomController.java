@@ -1,6 +1,11 @@
 package client.ui;
 
 import client.network.Client;
+import client.network.EventDispatcher;
+import client.network.ServerEvent;
+import client.network.UpdateQueue;
+import common.Opcode;
+import common.Role;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -17,8 +22,9 @@ public class GameRoomController {
     @FXML private Label roleLabel;
     @FXML private Label timerLabel;
     @FXML private ListView<String> playerList;
-    @FXML private TextArea chatArea;
-    @FXML private TextArea ghostChatArea;
+    @FXML private ListView<String> chatArea;
+    @FXML private ListView<String> ghostChatArea;
+    @FXML private Button olderChatButton;
     @FXML private TextField inputField;
     @FXML private TextField ghostInput;
     @FXML private Button sendButton;
@@ -28,12 +34,24 @@ public class GameRoomController {
     @FXML private Button mafiaSendButton;
 
     private static Client client;
+    private static UpdateQueue updates;
     private static String roomId;
     private static String roomName;
     private static String nickname;
     private static String hostNickname;
 
-    private Thread timerThread;
+    private PhaseCountdown countdown;
+
+    // 채팅창 줄 목록 (보이는 줄 수 상한 / "이전 대화"로 다시 볼 수 있는 줄 수 상한)
+    private static final int CHAT_LINES = 500;
+    private static final int CHAT_ARCHIVE = 5000;
+    private static final int CHAT_LOAD_PAGE = 200;
+    private final ChatLog chatLog = new ChatLog(CHAT_LINES, CHAT_ARCHIVE);
+    private final ChatLog ghostLog = new ChatLog(CHAT_LINES, 0);
+
+    // 이번 묶음에서 모은 채팅 줄 (flushChat에서 한 번에 붙임)
+    private final StringBuilder chatLines = new StringBuilder();
+    private final StringBuilder ghostLines = new StringBuilder();
 
     private boolean isVoteMode = false;
     private boolean isNightPhase = false;
@@ -53,8 +71,9 @@ public class GameRoomController {
     private String stolenRole = null;
     private boolean stolenAbilityUsed = false;
 
-    public static void init(Client c, String rId, String rName, String nick, String hostNick) {
+    public static void init(Client c, UpdateQueue q, String rId, String rName, String nick, String hostNick) {
         client = c;
+        updates = q;
         roomId = rId;
         roomName = rName;
         nickname = nick;
@@ -64,14 +83,22 @@ public class GameRoomController {
     @FXML
     public void initialize() {
         roomTitle.setText(roomName != null ? "방 이름: " + roomName : "방 이름 불러오는 중...");
+        countdown = new PhaseCountdown(timerLabel);
+        setupChatView(chatArea, chatLog);
+        if (ghostChatArea != null) setupChatView(ghostChatArea, ghostLog);
+        if (olderChatButton != null) {
+            olderChatButton.setDisable(true);
+            olderChatButton.setOnAction(e -> loadOlderChat());
+        }
 
         if (startButton != null) {
             startButton.setDisable(!nickname.equals(hostNickname));
         }
 
         if (client != null) {
-            client.setMessageHandler(this::onMessageReceived);
+            updates.setListener(dispatcher());
             client.requestPlayerList(roomId);
+            client.syncClock(); // 게임 들어가기 전에 한 번 더 (왕복이 짧은 값으로 갱신)
         }
 
         sendButton.setOnAction(e -> sendChat());
@@ -104,12 +131,12 @@ public class GameRoomController {
         String pureTarget = target.replace(" (나)", "");
 
         if (deadPlayers.contains(pureTarget)) {
-            chatArea.appendText("❌ 죽은 플레이어에게는 행동할 수 없습니다.\n");
+            appendChat("❌ 죽은 플레이어에게는 행동할 수 없습니다.\n");
             return;
         }
 
         if (iAmDead) {
-            chatArea.appendText("❌ 사망 상태에서는 행동할 수 없습니다.\n");
+            appendChat("❌ 사망 상태에서는 행동할 수 없습니다.\n");
             return;
         }
 
@@ -122,78 +149,54 @@ public class GameRoomController {
         // 투표
         if (isVoteMode) {
             myVoteTarget = pureTarget;
-            chatArea.appendText("🗳 [" + pureTarget + "]님에게 투표했습니다.\n");
+            appendChat("🗳 [" + pureTarget + "]님에게 투표했습니다.\n");
             client.send("VOTE|" + nickname + "|" + pureTarget);
             refreshPlayerListUI();
         }
     }
 
-    /** 밤 행동 처리 */
+    /** 밤 행동 처리 (대상 지목 가능 여부와 안내 문구는 Role 표에서) */
     private void handleNightAction(String target) {
-        if (target.equals(nickname) && !"DOCTOR".equals(myRole)) {
-            chatArea.appendText("❌ 자신에게는 능력을 사용할 수 없습니다.\n");
-            return;
-        }
-
         if (abilityUsed) {
-            chatArea.appendText("❌ 밤 능력은 한 번만 사용할 수 있습니다.\n");
+            appendChat("❌ 밤 능력은 한 번만 사용할 수 있습니다.\n");
             return;
         }
 
-        String roleToUse = myRole;
+        Role roleToUse = Role.of(myRole);
         
         // 🎭 도둑이 능력을 훔친 경우
-        if ("THIEF".equals(myRole) && stolenRole != null) {
+        if (roleToUse == Role.THIEF && stolenRole != null) {
             if (stolenAbilityUsed) {
-                chatArea.appendText("❌ 훔친 능력은 이미 사용되었습니다.\n");
+                appendChat("❌ 훔친 능력은 이미 사용되었습니다.\n");
                 return;
             }
-            roleToUse = stolenRole;
+            roleToUse = Role.of(stolenRole);
         }
 
-        switch (roleToUse) {
-            case "POLICE":
-                client.send("NIGHT_ACTION|" + nickname + "|POLICE|" + target);
-                chatArea.appendText("🔍 [" + target + "]님을 조사합니다...\n");
-                abilityUsed = true;
-                break;
-
-            case "MAFIA":
-                if (target.equals(nickname)) {
-                    chatArea.appendText("❌ 마피아는 자신을 선택할 수 없습니다.\n");
-                    return;
-                }
-                client.send("NIGHT_ACTION|" + nickname + "|MAFIA|" + target);
-                chatArea.appendText("🔪 [" + target + "]님을 공격합니다...\n");
-                abilityUsed = true;
-                break;
-
-            case "DOCTOR":
-                if (target.equals(nickname)) {
-                    chatArea.appendText("💉 자신을 보호합니다!\n");
-                } else {
-                    chatArea.appendText("💉 [" + target + "]님을 보호합니다...\n");
-                }
-                client.send("NIGHT_ACTION|" + nickname + "|DOCTOR|" + target);
-                abilityUsed = true;
-                break;
+        if (roleToUse == null || !roleToUse.hasNightAbility()) {
+            appendChat("⚠ 밤에 사용할 수 있는 능력이 없습니다.\n");
+            return;
+        }
 
-            case "TRACKER":
-                client.send("TRACKER_TARGET|" + target);
-                chatArea.appendText("🔍 [" + target + "]님을 추적합니다...\n");
-                abilityUsed = true;
-                break;
+        if (target.equals(nickname) && !roleToUse.canTargetSelf()) {
+            appendChat("❌ 자신에게는 능력을 사용할 수 없습니다.\n");
+            return;
+        }
 
-            default:
-                chatArea.appendText("⚠ 밤에 사용할 수 있는 능력이 없습니다.\n");
-                break;
+        // 추적자는 서버 쪽 명령이 따로 있음 (TRACKER_TARGET|대상)
+        if (roleToUse == Role.TRACKER) {
+            client.send("TRACKER_TARGET|" + target);
+        } else {
+            client.send("NIGHT_ACTION|" + nickname + "|" + roleToUse.name() + "|" + target);
         }
+        appendChat(roleToUse.nightActionMessage(target) + "\n");
+        abilityUsed = true;
     }
 
     /** 일반 채팅 */
     private void sendChat() {
         if (iAmDead) {
-            chatArea.appendText("❌ 사망 상태에서는 일반 채팅을 사용할 수 없습니다.\n");
+            appendChat("❌ 사망 상태에서는 일반 채팅을 사용할 수 없습니다.\n");
             return;
         }
         String text = inputField.getText().trim();
@@ -206,7 +209,7 @@ public class GameRoomController {
     /** 고스트 채팅 */
     private void sendGhostChat() {
         if (!iAmDead) {
-            ghostChatArea.appendText("❌ 살아있는 동안에는 고스트 채팅 불가.\n");
+            appendGhost("❌ 살아있는 동안에는 고스트 채팅 불가.\n");
             return;
         }
         String text = ghostInput.getText().trim();
@@ -218,16 +221,16 @@ public class GameRoomController {
 
     /** 마피아 채팅 */
     private void sendMafiaChat() {
-        if (!"MAFIA".equals(myRole) && !"FORGER".equals(myRole) && !"HACKER".equals(myRole)) {
-            chatArea.appendText("❌ 마피아팀만 사용 가능합니다.\n");
+        if (!Role.isMafiaTeam(myRole)) {
+            appendChat("❌ 마피아팀만 사용 가능합니다.\n");
             return;
         }
         if (!isNightPhase) {
-            chatArea.appendText("❌ 마피아 채팅은 밤에만 사용 가능합니다.\n");
+            appendChat("❌ 마피아 채팅은 밤에만 사용 가능합니다.\n");
             return;
         }
         if (iAmDead) {
-            chatArea.appendText("❌ 사망 상태에서는 마피아 채팅을 사용할 수 없습니다.\n");
+            appendChat("❌ 사망 상태에서는 마피아 채팅을 사용할 수 없습니다.\n");
             return;
         }
         String text = mafiaInput.getText().trim();
@@ -237,222 +240,196 @@ public class GameRoomController {
         mafiaInput.clear();
     }
 
-    /** 서버 메시지 처리 */
-    private void onMessageReceived(String msg) {
-
-        if (msg.startsWith("CHAT|")) {
-            String[] p = msg.split("\\|", 3);
-            Platform.runLater(() ->
-                chatArea.appendText(p[1] + ": " + p[2] + "\n")
-            );
-        }
-
-        else if (msg.startsWith("PLAYER_LIST|")) {
-            String[] players = msg.substring("PLAYER_LIST|".length()).split(",");
-            Platform.runLater(() -> updatePlayerList(players));
-        }
-
-        else if (msg.startsWith("ROLE|")) {
-            handleRoleAssignment(msg);
-        }
-
-        else if (msg.startsWith("DAY_START|")) {
-            Platform.runLater(() -> {
-                chatArea.appendText("\n🌞 낮이 시작되었습니다!\n");
-                if (!iAmDead) {
-                    inputField.setDisable(false);
-                    sendButton.setDisable(false);
-                }
-                mafiaInput.setDisable(true);
-                mafiaSendButton.setDisable(true);
-                
-                myVoteTarget = null;
-                refreshPlayerListUI();
-            });
-            isNightPhase = false;
-            isVoteMode = false;
-            startTimer(10, "낮");
-        }
-
-        else if (msg.equals("VOTE_START")) {
-            Platform.runLater(() -> {
-                chatArea.appendText("\n🗳 투표 시작! 플레이어를 선택하세요.\n");
-                playerList.setStyle("-fx-border-color: #ff6b6b; -fx-border-width: 2px;");
-                timerLabel.setText("투표 시간: 10초");
-            });
-            isVoteMode = true;
-            startTimer(10, "투표");
-        }
-
-        // 🔧 해커 메시지
-        else if (msg.startsWith("HACKER_VOTE_INFO|")) {
-            Platform.runLater(() -> handleHackerVoteInfo(msg));
-        }
-        else if (msg.startsWith("HACKER_PROMPT|")) {
-            Platform.runLater(() -> {
-                String prompt = msg.substring("HACKER_PROMPT|".length());
-                chatArea.appendText("\n🔧 " + prompt + "\n");
-                showHackerDialog();
-            });
-        }
-
-        // 🎭 위조범 메시지
-        else if (msg.startsWith("FORGER_PROMPT|")) {
-            Platform.runLater(() -> handleForgerPrompt(msg));
-        }
-
-        // ⏰ 시간 관리자 메시지
-        else if (msg.startsWith("TIME_MANAGER_PROMPT|")) {
-            Platform.runLater(() -> showTimeManagerDialog(msg));
-        }
-        else if (msg.startsWith("TIME_MANAGER_SKIP|")) {
-            Platform.runLater(() -> {
-                String message = msg.substring("TIME_MANAGER_SKIP|".length());
-                chatArea.appendText("\n⏰ " + message + "\n");
-            });
-        }
+    /**
+     * 🔵 서버 메시지 → 처리기 표 (UpdateQueue가 FX 스레드에서 묶음으로 부름)
+     * - 채팅 줄은 모아뒀다가 묶음 끝이나 다른 메시지 앞에서 한 번에 붙임 (줄 순서는 그대로)
+     * - 응답을 기다리는 대화상자(showAndWait)는 runLater로 미룸 → 대화상자가 떠 있어도 같은 묶음의 나머지 메시지는 바로 처리
+     */
+    private EventDispatcher dispatcher() {
+        return new EventDispatcher()
+                .on(Opcode.CHAT, e ->
+                        chatLines.append(e.field(1)).append(": ").append(e.rest(2)).append('\n'))
+                .on(Opcode.MAFIA_CHAT, e ->
+                        chatLines.append("🔴 [마피아] ").append(e.field(1)).append(": ").append(e.rest(2)).append('\n'))
+                .on(Opcode.GHOST_CHAT, e ->
+                        ghostLines.append("👻 ").append(e.field(1)).append(": ").append(e.rest(2)).append('\n'))
+
+                .on(Opcode.PLAYER_LIST, flushed(e -> updatePlayerList(e.rest(1).split(","))))
+                .on(Opcode.ROLE, flushed(this::handleRoleAssignment))
+                .on(Opcode.DAY_START, flushed(this::handleDayStart))
+                .on(Opcode.VOTE_START, flushed(this::handleVoteStart))
+                .on(Opcode.PHASE_DEADLINE, this::handlePhaseDeadline)
+
+                // 🔧 해커 메시지
+                .on(Opcode.HACKER_VOTE_INFO, flushed(this::handleHackerVoteInfo))
+                .on(Opcode.HACKER_PROMPT, flushed(e -> {
+                    appendChat("\n🔧 " + e.rest(1) + "\n");
+                    Platform.runLater(this::showHackerDialog);
+                }))
+
+                // 🎭 위조범 메시지
+                .on(Opcode.FORGER_PROMPT, flushed(e -> Platform.runLater(() -> handleForgerPrompt(e))))
+
+                // ⏰ 시간 관리자 메시지
+                .on(Opcode.TIME_MANAGER_PROMPT, flushed(e -> Platform.runLater(() -> showTimeManagerDialog(e))))
+                .on(Opcode.TIME_MANAGER_SKIP, flushed(e -> appendChat("\n⏰ " + e.rest(1) + "\n")))
+
+                // 🔮 운명가 / 🎭 도둑 / 🔍 추적자 메시지
+                .on(Opcode.DESTINY_TARGETS, flushed(this::handleDestinyTargets))
+                .on(Opcode.THIEF_STOLEN, flushed(this::handleThiefStolen))
+                .on(Opcode.TRACKER_RESULT, flushed(e -> appendChat("\n🔍 추적 결과: " + e.rest(1) + "\n")))
+
+                .on(Opcode.VOTE_RESULT, flushed(this::handleVoteResult))
+                .on(Opcode.NIGHT_START, flushed(this::handleNightStart))
+                .on(Opcode.NIGHT_RESULT, flushed(e -> {
+                    countdown.finish();
+                    handleDeathResult(e.rest(1), "밤", null);
+                    isNightPhase = false;
+                }))
+                .on(Opcode.POLICE_RESULT, flushed(this::handlePoliceResult))
+                .on(Opcode.JESTER_WIN, flushed(this::handleJesterWin))
+                .on(Opcode.GAME_OVER, flushed(e -> handleGameOver(e.rest(1))))
+                .on(Opcode.ENTER_LOBBY, flushed(e -> goToLobby()))
+
+                .onBatchEnd(this::flushChat);
+    }
 
-        // 🔮 운명가 메시지
-        else if (msg.startsWith("DESTINY_TARGETS|")) {
-            Platform.runLater(() -> handleDestinyTargets(msg));
-        }
+    /** 채팅이 아닌 메시지 → 모아둔 채팅 줄부터 붙이고 처리 */
+    private EventDispatcher.Handler flushed(EventDispatcher.Handler handler) {
+        return e -> {
+            flushChat();
+            handler.handle(e);
+        };
+    }
 
-        // 🎭 도둑 메시지
-        else if (msg.startsWith("THIEF_STOLEN|")) {
-            Platform.runLater(() -> handleThiefStolen(msg));
+    /** 🌞 낮 시작 (DAY_START|discussion|마감시각) */
+    private void handleDayStart(ServerEvent e) {
+        appendChat("\n🌞 낮이 시작되었습니다!\n");
+        if (!iAmDead) {
+            inputField.setDisable(false);
+            sendButton.setDisable(false);
         }
+        mafiaInput.setDisable(true);
+        mafiaSendButton.setDisable(true);
 
-        // 🔍 추적자 메시지
-        else if (msg.startsWith("TRACKER_RESULT|")) {
-            Platform.runLater(() -> {
-                String result = msg.substring("TRACKER_RESULT|".length());
-                chatArea.appendText("\n🔍 추적 결과: " + result + "\n");
-            });
-        }
+        myVoteTarget = null;
+        refreshPlayerListUI();
+        isNightPhase = false;
+        isVoteMode = false;
+        startTimer("낮", remainingMillis(e, 2, 10));
+    }
 
-        else if (msg.startsWith("VOTE_RESULT|")) {
-            handleVoteResult(msg);
-        }
+    /** 🗳 투표 시작 (VOTE_START 또는 VOTE_START|마감시각) */
+    private void handleVoteStart(ServerEvent e) {
+        appendChat("\n🗳 투표 시작! 플레이어를 선택하세요.\n");
+        playerList.setStyle("-fx-border-color: #ff6b6b; -fx-border-width: 2px;");
+        isVoteMode = true;
+        startTimer("투표", remainingMillis(e, 1, 10));
+    }
 
-        else if (msg.startsWith("NIGHT_START|")) {
-            Platform.runLater(() -> {
-                chatArea.appendText("\n🌙 밤이 되었습니다!\n");
-                inputField.setDisable(true);
-                sendButton.setDisable(true);
-                
-                if (("MAFIA".equals(myRole) || "FORGER".equals(myRole) || "HACKER".equals(myRole)) && !iAmDead) {
-                    mafiaInput.setDisable(false);
-                    mafiaSendButton.setDisable(false);
-                    chatArea.appendText("🔴 마피아 전용 채팅이 활성화되었습니다.\n");
-                }
-            });
-            isNightPhase = true;
-            isVoteMode = false;
-            abilityUsed = false;
-            startTimer(30, "밤");
-        }
+    /** 🌙 밤 시작 (NIGHT_START|power|마감시각) */
+    private void handleNightStart(ServerEvent e) {
+        appendChat("\n🌙 밤이 되었습니다!\n");
+        inputField.setDisable(true);
+        sendButton.setDisable(true);
+
+        if (Role.isMafiaTeam(myRole) && !iAmDead) {
+            mafiaInput.setDisable(false);
+            mafiaSendButton.setDisable(false);
+            appendChat("🔴 마피아 전용 채팅이 활성화되었습니다.\n");
+        }
+        isNightPhase = true;
+        isVoteMode = false;
+        abilityUsed = false;
+        startTimer("밤", remainingMillis(e, 2, 30));
+    }
 
-        else if (msg.startsWith("NIGHT_RESULT|")) {
-            String deadPlayer = msg.substring(13);
-            Platform.runLater(() -> handleDeathResult(deadPlayer, "밤", null));
-            isNightPhase = false;
+    /** 모아둔 채팅 줄을 한 번에 붙임 (묶음 끝 / 채팅이 아닌 메시지 앞) */
+    private void flushChat() {
+        if (chatLines.length() > 0) {
+            appendChat(chatLines.toString());
+            chatLines.setLength(0);
         }
-
-        else if (msg.startsWith("GHOST_CHAT|")) {
-            String[] p = msg.split("\\|", 3);
-            Platform.runLater(() ->
-                ghostChatArea.appendText("👻 " + p[1] + ": " + p[2] + "\n")
-            );
+        if (ghostLines.length() > 0) {
+            appendGhost(ghostLines.toString());
+            ghostLines.setLength(0);
         }
+    }
 
-        else if (msg.startsWith("MAFIA_CHAT|")) {
-            String[] p = msg.split("\\|", 3);
-            Platform.runLater(() ->
-                chatArea.appendText("🔴 [마피아] " + p[1] + ": " + p[2] + "\n")
-            );
-        }
+    /** 채팅창 = 줄 목록을 그대로 보여주는 ListView (긴 줄은 칸 너비에서 줄바꿈) */
+    private static void setupChatView(ListView<String> view, ChatLog log) {
+        view.setItems(log);
+        view.setFocusTraversable(false);
+        view.setCellFactory(list -> new ListCell<>() {
+            {
+                setWrapText(true);
+                setPrefWidth(0); // 셀이 글자 길이만큼 넓어지지 않고 목록 너비에 맞춰 줄바꿈
+            }
 
-        else if (msg.startsWith("POLICE_RESULT|")) {
-            handlePoliceResult(msg);
-        }
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : item);
+            }
+        });
+    }
 
-        else if (msg.startsWith("JESTER_WIN|")) {
-            handleJesterWin(msg);
-        }
+    /** 채팅창에 텍스트 붙이고 맨 아래로 */
+    private void appendChat(String text) {
+        chatLog.append(text);
+        chatArea.scrollTo(chatLog.size() - 1);
+        if (olderChatButton != null) olderChatButton.setDisable(chatLog.olderCount() == 0);
+    }
 
-        else if (msg.startsWith("GAME_OVER|")) {
-            String data = msg.substring("GAME_OVER|".length());
-            Platform.runLater(() -> handleGameOver(data));
-        }
+    /** 고스트 채팅창에 텍스트 붙이기 (화면에 고스트 채팅창이 없으면 무시) */
+    private void appendGhost(String text) {
+        if (ghostChatArea == null) return;
+        ghostLog.append(text);
+        ghostChatArea.scrollTo(ghostLog.size() - 1);
+    }
 
-        else if (msg.equals("ENTER_LOBBY")) {
-            Platform.runLater(() -> goToLobby());
-        }
+    /** "이전 대화" → 밀려난 줄을 한 페이지씩 위에 다시 붙임 */
+    private void loadOlderChat() {
+        int loaded = chatLog.loadOlder(CHAT_LOAD_PAGE);
+        if (loaded > 0) chatArea.scrollTo(loaded - 1);
+        olderChatButton.setDisable(chatLog.olderCount() == 0);
     }
 
     /** 역할 배정 처리 */
-    private void handleRoleAssignment(String msg) {
-        String[] p = msg.split("\\|");
-        if (p[1].equals(nickname)) {
-            myRole = p[2];
-            Platform.runLater(() -> {
-                String roleDisplay = getRoleDisplay(myRole);
-                roleLabel.setText("당신의 역할: " + roleDisplay);
-                chatArea.appendText("🎭 역할: [" + roleDisplay + "]\n");
-                
-                // 역할별 안내
-                if ("MAFIA".equals(myRole) || "FORGER".equals(myRole) || "HACKER".equals(myRole)) {
-                    chatArea.appendText("🔴 밤 시간에 마피아 전용 채팅을 사용할 수 있습니다.\n");
-                }
-                
-                if ("FORGER".equals(myRole)) {
-                    chatArea.appendText("🎭 위조범: 투표로 죽은 사람의 직업을 1회 위조할 수 있습니다.\n");
-                } else if ("HACKER".equals(myRole)) {
-                    chatArea.appendText("🔧 해커: 투표 결과를 먼저 받고 1회 조작할 수 있습니다.\n");
-                } else if ("JESTER".equals(myRole)) {
-                    chatArea.appendText("🎭 광대: 낮 투표로 처형되면 승리합니다!\n");
-                } else if ("THIEF".equals(myRole)) {
-                    chatArea.appendText("🎭 도둑: 첫 사망자의 직업을 훔칠 수 있습니다.\n");
-                } else if ("TIME_MANAGER".equals(myRole)) {
-                    chatArea.appendText("⏰ 시간 관리자: 투표 시 밤을 건너뛸 수 있습니다 (1회).\n");
-                } else if ("DESTINY".equals(myRole)) {
-                    chatArea.appendText("🔮 운명가: 첫 날 3명의 이름을 받습니다 (1명은 반드시 마피아).\n");
-                } else if ("TRACKER".equals(myRole)) {
-                    chatArea.appendText("🔍 추적자: 밤마다 한 명을 지정해 누구에게 행동했는지 알 수 있습니다.\n");
-                }
-            });
+    private void handleRoleAssignment(ServerEvent e) {
+        if (e.fieldEquals(1, nickname)) {
+            myRole = e.field(2);
+            String roleDisplay = getRoleDisplay(myRole);
+            roleLabel.setText("당신의 역할: " + roleDisplay);
+            appendChat("🎭 역할: [" + roleDisplay + "]\n");
+            
+            // 역할별 안내 (Role 표의 안내 문구)
+            Role role = Role.of(myRole);
+            if (role != null && role.isMafiaTeam()) {
+                appendChat("🔴 밤 시간에 마피아 전용 채팅을 사용할 수 있습니다.\n");
+            }
+            if (role != null && role.hint() != null) {
+                appendChat(role.hint() + "\n");
+            }
         }
     }
 
     /** 직업 한글 표시 */
     private String getRoleDisplay(String role) {
-        switch (role) {
-            case "MAFIA": return "마피아 🔴";
-            case "FORGER": return "위조범 🎭";
-            case "HACKER": return "해커 🔧";
-            case "JESTER": return "광대 🎭";
-            case "THIEF": return "도둑 🎭";
-            case "POLICE": return "경찰 🔍";
-            case "DOCTOR": return "의사 💉";
-            case "TIME_MANAGER": return "시간 관리자 ⏰";
-            case "DESTINY": return "운명가 🔮";
-            case "TRACKER": return "추적자 🔍";
-            case "CIVILIAN": return "시민 👤";
-            default: return role;
-        }
+        return Role.displayOf(role);
     }
 
     // Part 2로 계속...
     // GameRoomController.java 계속 (Part 2)
 
     /** 🔧 해커: 투표 결과 정보 처리 */
-    private void handleHackerVoteInfo(String msg) {
+    private void handleHackerVoteInfo(ServerEvent e) {
         if (hackerUsed) {
-            chatArea.appendText("⚠ 해커 능력은 이미 사용했습니다.\n");
+            appendChat("⚠ 해커 능력은 이미 사용했습니다.\n");
             return;
         }
         
-        String voteData = msg.substring("HACKER_VOTE_INFO|".length());
+        String voteData = e.rest(1);
         currentVotes.clear();
         
         String[] votes = voteData.split(",");
@@ -465,21 +442,22 @@ public class GameRoomController {
         }
         
         // 투표 결과 표시
-        chatArea.appendText("\n🔧 === 투표 결과 (해커 전용) ===\n");
+        appendChat("\n🔧 === 투표 결과 (해커 전용) ===\n");
         Map<String, Integer> counts = new HashMap<>();
         for (String target : currentVotes.values()) {
             counts.put(target, counts.getOrDefault(target, 0) + 1);
         }
         
         for (Map.Entry<String, Integer> entry : counts.entrySet()) {
-            chatArea.appendText("  " + entry.getKey() + ": " + entry.getValue() + "표\n");
+            appendChat("  " + entry.getKey() + ": " + entry.getValue() + "표\n");
         }
-        chatArea.appendText("============================\n\n");
+        appendChat("============================\n\n");
     }
     
-    /** 🔧 해커: 투표 조작 다이얼로그 */
+    /** 🔧 해커: 투표 조작 다이얼로그 (안 쓰더라도 빈 HACKER_CHANGE를 보내 서버가 바로 진행하게 함) */
     private void showHackerDialog() {
         if (hackerUsed || currentVotes.isEmpty()) {
+            client.send("HACKER_CHANGE|");
             return;
         }
         
@@ -514,35 +492,35 @@ public class GameRoomController {
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
         
-        dialog.showAndWait().ifPresent(btn -> {
-            if (btn == ButtonType.OK && voterBox.getValue() != null && targetBox.getValue() != null) {
-                String voter = voterBox.getValue();
-                String newTarget = targetBox.getValue();
-                
-                client.send("HACKER_CHANGE|" + voter + "|" + newTarget);
-                hackerUsed = true;
-                chatArea.appendText("✅ " + voter + "의 투표를 " + newTarget + "으로 변경했습니다!\n");
-            } else {
-                chatArea.appendText("⏭ 해커 능력을 사용하지 않았습니다.\n");
-            }
-        });
+        ButtonType btn = dialog.showAndWait().orElse(ButtonType.CANCEL);
+        if (btn == ButtonType.OK && voterBox.getValue() != null && targetBox.getValue() != null) {
+            String voter = voterBox.getValue();
+            String newTarget = targetBox.getValue();
+            
+            client.send("HACKER_CHANGE|" + voter + "|" + newTarget);
+            hackerUsed = true;
+            appendChat("✅ " + voter + "의 투표를 " + newTarget + "으로 변경했습니다!\n");
+        } else {
+            client.send("HACKER_CHANGE|");
+            appendChat("⏭ 해커 능력을 사용하지 않았습니다.\n");
+        }
     }
     
-    /** 🎭 위조범: 직업 위조 프롬프트 */
-    private void handleForgerPrompt(String msg) {
+    /** 🎭 위조범: 직업 위조 프롬프트 (이미 썼어도 빈 FORGER_CHANGE를 보내 서버가 마감까지 기다리지 않게 함) */
+    private void handleForgerPrompt(ServerEvent e) {
         if (forgerUsed) {
+            client.send("FORGER_CHANGE|");
             return;
         }
         
         // FORGER_PROMPT|deadPlayer|deadRole
-        String[] parts = msg.split("\\|");
-        String deadPlayer = parts[1];
-        String deadRole = parts[2];
+        String deadPlayer = e.field(1);
+        String deadRole = e.field(2);
         
-        chatArea.appendText("\n🎭 === 위조범 능력 ===\n");
-        chatArea.appendText("  사망자: " + deadPlayer + "\n");
-        chatArea.appendText("  실제 직업: " + getRoleDisplay(deadRole) + "\n");
-        chatArea.appendText("========================\n\n");
+        appendChat("\n🎭 === 위조범 능력 ===\n");
+        appendChat("  사망자: " + deadPlayer + "\n");
+        appendChat("  실제 직업: " + getRoleDisplay(deadRole) + "\n");
+        appendChat("========================\n\n");
         
         Alert alert = new Alert(AlertType.CONFIRMATION);
         alert.setTitle("위조범 능력");
@@ -554,39 +532,43 @@ public class GameRoomController {
         
         alert.getButtonTypes().setAll(btnForge, btnSkip);
         
-        alert.showAndWait().ifPresent(btn -> {
-            if (btn == btnForge) {
-                showForgerRoleSelection(deadRole);
-            } else {
-                chatArea.appendText("⏭ 위조를 건너뛰었습니다.\n");
-            }
-        });
+        if (alert.showAndWait().orElse(btnSkip) == btnForge) {
+            showForgerRoleSelection(deadRole);
+        } else {
+            client.send("FORGER_CHANGE|");
+            appendChat("⏭ 위조를 건너뛰었습니다.\n");
+        }
     }
     
     /** 🎭 위조범: 직업 선택 다이얼로그 */
     private void showForgerRoleSelection(String realRole) {
-        List<String> roles = Arrays.asList("MAFIA", "FORGER", "HACKER", "JESTER", "THIEF", 
-                                           "POLICE", "DOCTOR", "TIME_MANAGER", "DESTINY", "TRACKER", "CIVILIAN");
+        List<String> roles = new ArrayList<>();
+        for (Role r : Role.values()) roles.add(r.name());
         
         ChoiceDialog<String> dialog = new ChoiceDialog<>(realRole, roles);
         dialog.setTitle("위조범 - 직업 선택");
         dialog.setHeaderText("어떤 직업으로 발표하시겠습니까?");
         dialog.setContentText("직업 선택:");
         
-        dialog.showAndWait().ifPresent(selectedRole -> {
+        String selectedRole = dialog.showAndWait().orElse(null);
+        if (selectedRole != null) {
             client.send("FORGER_CHANGE|" + selectedRole);
             forgerUsed = true;
-            chatArea.appendText("✅ 직업을 [" + getRoleDisplay(selectedRole) + "]로 위조했습니다!\n");
-        });
+            appendChat("✅ 직업을 [" + getRoleDisplay(selectedRole) + "]로 위조했습니다!\n");
+        } else {
+            client.send("FORGER_CHANGE|");
+            appendChat("⏭ 위조를 건너뛰었습니다.\n");
+        }
     }
     
-    /** ⏰ 시간 관리자: 밤 건너뛰기 다이얼로그 */
-    private void showTimeManagerDialog(String msg) {
+    /** ⏰ 시간 관리자: 밤 건너뛰기 다이얼로그 (이미 썼으면 NO로 답해 투표 조기 마감을 막지 않음) */
+    private void showTimeManagerDialog(ServerEvent e) {
         if (timeManagerUsed) {
+            client.send("TIME_MANAGER_CHOICE|NO");
             return;
         }
         
-        String prompt = msg.substring("TIME_MANAGER_PROMPT|".length());
+        String prompt = e.rest(1);
         
         Alert alert = new Alert(AlertType.CONFIRMATION);
         alert.setTitle("시간 관리자 능력");
@@ -598,21 +580,19 @@ public class GameRoomController {
         
         alert.getButtonTypes().setAll(btnYes, btnNo);
         
-        alert.showAndWait().ifPresent(btn -> {
-            if (btn == btnYes) {
-                client.send("TIME_MANAGER_CHOICE|YES");
-                timeManagerUsed = true;
-                chatArea.appendText("⏰ 밤을 건너뛰기로 결정했습니다!\n");
-            } else {
-                client.send("TIME_MANAGER_CHOICE|NO");
-                chatArea.appendText("⏰ 정상적으로 게임을 진행합니다.\n");
-            }
-        });
+        if (alert.showAndWait().orElse(btnNo) == btnYes) {
+            client.send("TIME_MANAGER_CHOICE|YES");
+            timeManagerUsed = true;
+            appendChat("⏰ 밤을 건너뛰기로 결정했습니다!\n");
+        } else {
+            client.send("TIME_MANAGER_CHOICE|NO");
+            appendChat("⏰ 정상적으로 게임을 진행합니다.\n");
+        }
     }
     
     /** 🔮 운명가: 3명 이름 표시 */
-    private void handleDestinyTargets(String msg) {
-        String data = msg.substring("DESTINY_TARGETS|".length());
+    private void handleDestinyTargets(ServerEvent e) {
+        String data = e.rest(1);
         String[] targets = data.split(",");
         
         destinyTargets.clear();
@@ -622,12 +602,12 @@ public class GameRoomController {
             }
         }
         
-        chatArea.appendText("\n🔮 === 운명가 정보 ===\n");
-        chatArea.appendText("  다음 3명 중 최소 1명은 마피아입니다:\n");
+        appendChat("\n🔮 === 운명가 정보 ===\n");
+        appendChat("  다음 3명 중 최소 1명은 마피아입니다:\n");
         for (String t : destinyTargets) {
-            chatArea.appendText("  • " + t + "\n");
+            appendChat("  • " + t + "\n");
         }
-        chatArea.appendText("========================\n\n");
+        appendChat("========================\n\n");
         
         // Alert로도 표시
         Alert alert = new Alert(AlertType.INFORMATION);
@@ -643,21 +623,20 @@ public class GameRoomController {
     }
     
     /** 🎭 도둑: 직업 훔치기 */
-    private void handleThiefStolen(String msg) {
+    private void handleThiefStolen(ServerEvent e) {
         // THIEF_STOLEN|role|USED or AVAILABLE
-        String[] parts = msg.split("\\|");
-        stolenRole = parts[1];
-        stolenAbilityUsed = "USED".equals(parts[2]);
+        stolenRole = e.field(1);
+        stolenAbilityUsed = e.fieldEquals(2, "USED");
         
-        chatArea.appendText("\n🎭 === 도둑 능력 발동 ===\n");
-        chatArea.appendText("  훔친 직업: " + getRoleDisplay(stolenRole) + "\n");
+        appendChat("\n🎭 === 도둑 능력 발동 ===\n");
+        appendChat("  훔친 직업: " + getRoleDisplay(stolenRole) + "\n");
         
         if (stolenAbilityUsed) {
-            chatArea.appendText("  ⚠ 이 직업의 능력은 이미 사용되었습니다.\n");
+            appendChat("  ⚠ 이 직업의 능력은 이미 사용되었습니다.\n");
         } else {
-            chatArea.appendText("  ✅ 이 직업의 능력을 사용할 수 있습니다!\n");
+            appendChat("  ✅ 이 직업의 능력을 사용할 수 있습니다!\n");
         }
-        chatArea.appendText("========================\n\n");
+        appendChat("========================\n\n");
         
         // Alert로도 표시
         Alert alert = new Alert(AlertType.INFORMATION);
@@ -669,42 +648,36 @@ public class GameRoomController {
         alert.show();
     }
     
-    /** 🔍 경찰: 조사 결과 */
-    private void handlePoliceResult(String msg) {
-        String[] parts = msg.split("\\|");
-        String targetNickname = parts[1];
-        String targetRole = parts[2];
+    /** 🔍 경찰: 조사 결과 (서버가 조사한 사람에게만 보냄 → 경찰 능력을 훔친 도둑도 받음) */
+    private void handlePoliceResult(ServerEvent e) {
+        String targetNickname = e.field(1);
+        String targetRole = e.field(2);
 
-        Platform.runLater(() -> {
-            if (myRole.equals("POLICE")) {
-                String roleDisplay = getRoleDisplay(targetRole);
-                chatArea.appendText("🔍 조사 결과: " + targetNickname + "님의 직업은 [" + roleDisplay + "]입니다.\n");
-            }
-        });
+        String roleDisplay = getRoleDisplay(targetRole);
+        appendChat("🔍 조사 결과: " + targetNickname + "님의 직업은 [" + roleDisplay + "]입니다.\n");
     }
     
     /** 투표 결과 처리 */
-    private void handleVoteResult(String msg) {
-        String[] parts = msg.split("\\|");
-        String deadPlayer = parts[1];
-        String revealedRole = parts.length > 2 ? parts[2] : "알 수 없음";
-
-        Platform.runLater(() -> {
-            if (!"NONE".equals(deadPlayer)) {
-                handleDeathResult(deadPlayer, "낮", revealedRole);
-            } else {
-                chatArea.appendText("\n⚖ 투표 결과: 아무도 죽지 않았습니다.\n");
-            }
+    private void handleVoteResult(ServerEvent e) {
+        countdown.finish();
+        String deadPlayer = e.field(1);
+        String revealedRole = e.field(2, "");
+        if (revealedRole.isEmpty()) revealedRole = "알 수 없음";
+
+        if (!"NONE".equals(deadPlayer)) {
+            handleDeathResult(deadPlayer, "낮", revealedRole);
+        } else {
+            appendChat("\n⚖ 투표 결과: 아무도 죽지 않았습니다.\n");
+        }
 
-            isVoteMode = false;
-            playerList.setStyle("");
-            myVoteTarget = null;
-        });
+        isVoteMode = false;
+        playerList.setStyle("");
+        myVoteTarget = null;
     }
     
     /** 🎭 광대 승리 */
-    private void handleJesterWin(String msg) {
-        String jesterName = msg.substring("JESTER_WIN|".length());
+    private void handleJesterWin(ServerEvent e) {
+        String jesterName = e.rest(1);
         
         Platform.runLater(() -> {
             Alert alert = new Alert(AlertType.INFORMATION);
@@ -720,9 +693,7 @@ public class GameRoomController {
                 goToLobby();
             });
 
-            if (timerThread != null && timerThread.isAlive()) {
-                timerThread.interrupt();
-            }
+            countdown.stop();
 
             inputField.setDisable(true);
             sendButton.setDisable(true);
@@ -733,7 +704,7 @@ public class GameRoomController {
     /** 사망 처리 */
     private void handleDeathResult(String dead, String phase, String revealedRole) {
         if (dead.equals("NONE")) {
-            chatArea.appendText("\n⚖ [" + phase + "] 아무도 죽지 않았습니다.\n");
+            appendChat("\n⚖ [" + phase + "] 아무도 죽지 않았습니다.\n");
             return;
         }
 
@@ -742,7 +713,7 @@ public class GameRoomController {
             roleInfo = " - 직업: " + getRoleDisplay(revealedRole);
         }
         
-        chatArea.appendText("\n💀 [" + phase + "] " + dead + "님 사망" + roleInfo + "\n");
+        appendChat("\n💀 [" + phase + "] " + dead + "님 사망" + roleInfo + "\n");
         deadPlayers.add(dead);
         refreshPlayerListUI();
 
@@ -755,9 +726,7 @@ public class GameRoomController {
             if (ghostInput != null) ghostInput.setDisable(false);
             if (ghostSendButton != null) ghostSendButton.setDisable(false);
 
-            if (ghostChatArea != null) {
-                ghostChatArea.appendText("⚠ 당신은 사망했습니다 → 고스트 채팅만 가능합니다.\n");
-            }
+            appendGhost("⚠ 당신은 사망했습니다 → 고스트 채팅만 가능합니다.\n");
         }
     }
 
@@ -807,35 +776,29 @@ public class GameRoomController {
         });
     }
 
-    /** 타이머 시작 */
-    private void startTimer(int seconds, String phaseName) {
-        if (timerThread != null && timerThread.isAlive())
-            timerThread.interrupt();
-
-        timerThread = new Thread(() -> {
-            int time = seconds;
-
-            while (time >= 0 && !Thread.currentThread().isInterrupted()) {
-
-                int t = time;
-                Platform.runLater(() ->
-                        timerLabel.setText(phaseName + " - " + t + "초"));
-
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    return;
-                }
-                time--;
-            }
+    /**
+     * 페이즈 메시지의 index번째 필드(서버 마감 시각) → 남은 시간 (ms)
+     * 마감 시각이 없거나(예전 서버) 시계를 아직 못 맞췄으면 fallbackSeconds
+     */
+    private long remainingMillis(ServerEvent e, int index, int fallbackSeconds) {
+        String deadline = e.field(index);
+        if (deadline == null || deadline.isEmpty()) return fallbackSeconds * 1000L;
+        try {
+            long remaining = client.remainingUntil(Long.parseLong(deadline));
+            return remaining < 0 ? fallbackSeconds * 1000L : remaining;
+        } catch (NumberFormatException ex) {
+            return fallbackSeconds * 1000L;
+        }
+    }
 
-            Platform.runLater(() ->
-                timerLabel.setText(phaseName + " 종료!")
-            );
-        });
+    /** 타이머 시작 (마감 시각은 남은 시간을 계산한 지금 기준) */
+    private void startTimer(String phaseName, long remainingMillis) {
+        countdown.start(phaseName, System.nanoTime() + remainingMillis * 1_000_000L);
+    }
 
-        timerThread.setDaemon(true);
-        timerThread.start();
+    /** ⏩ 마감 앞당김 (PHASE_DEADLINE|마감시각) → 모두 행동해서 서버가 페이즈를 일찍 끝냄, 진행 중인 카운트다운만 고침 */
+    private void handlePhaseDeadline(ServerEvent e) {
+        countdown.reschedule(System.nanoTime() + remainingMillis(e, 1, 0) * 1_000_000L);
     }
 
     @FXML
@@ -889,9 +852,7 @@ public class GameRoomController {
                 goToLobby();
             });
 
-            if (timerThread != null && timerThread.isAlive()) {
-                timerThread.interrupt();
-            }
+            countdown.stop();
 
             inputField.setDisable(true);
             sendButton.setDisable(true);
@@ -903,6 +864,12 @@ public class GameRoomController {
 
     /** 로비로 이동 */
     private void goToLobby() {
+        // 서버에 방 나가기 알림 → 로비 화면이 ROOM_SYNC로 방 목록을 다시 구독
+        if (client != null) client.leaveRoom();
+
+        // 화면을 떠나면 떼어진 라벨을 계속 고치지 않도록 카운트다운 정지
+        countdown.stop();
+
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/client/ui/Lobby.fxml"));
             Parent root = loader.load();
@@ -911,7 +878,7 @@ public class GameRoomController {
 
         } catch (Exception e) {
             e.printStackTrace();
-            chatArea.appendText("❌ 로비로 이동 실패\n");
+            appendChat("❌ 로비로 이동 실패\n");
         }
     }
 
@@ -920,15 +887,13 @@ public class GameRoomController {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/client/ui/GameScene.fxml"));
             Parent root = loader.load();
 
-            if (timerThread != null && timerThread.isAlive()) {
-                timerThread.interrupt();
-            }
+            countdown.stop();
 
             roomTitle.getScene().setRoot(root);
 
         } catch (Exception e) {
             e.printStackTrace();
-            chatArea.appendText("❌ 게임 화면으로 이동 실패\n");
+            appendChat("❌ 게임 화면으로 이동 실패\n");
         }
     }
 }
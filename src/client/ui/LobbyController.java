@@ -1,6 +1,10 @@
 package client.ui;
 
 import client.network.Client;
+import client.network.EventDispatcher;
+import client.network.ServerEvent;
+import client.network.UpdateQueue;
+import common.Opcode;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -9,6 +13,8 @@ import javafx.scene.control.*;
 import javafx.scene.Parent;
 import javafx.stage.Stage;
 
+import java.util.*;
+
 public class LobbyController {
 
     @FXML private TextField nicknameField;
@@ -19,18 +25,57 @@ public class LobbyController {
 
     @FXML private ComboBox<String> modeBox;
     @FXML private ComboBox<Integer> limitBox;
-
-    private Client client;
+    // 페이즈 길이 (초) — 토론 / 투표 / 밤 / 해커·위조범 응답 대기
+    @FXML private ComboBox<Integer> discussionBox;
+    @FXML private ComboBox<Integer> voteBox;
+    @FXML private ComboBox<Integer> nightBox;
+    @FXML private ComboBox<Integer> abilityBox;
+
+    // 방 검색 조건
+    @FXML private ComboBox<String> filterModeBox;
+    @FXML private CheckBox freeOnlyCheck;
+    @FXML private CheckBox noPasswordCheck;
+    @FXML private ComboBox<String> sortBox;
+    @FXML private Button prevPageButton;
+    @FXML private Button nextPageButton;
+
+    private static final int ROOM_PAGE_SIZE = 20;
+
+    // 바이너리 프로토콜 사용 여부 (-Dmafia.binary=false 로 끄면 텍스트 프로토콜)
+    private static final boolean USE_BINARY =
+            Boolean.parseBoolean(System.getProperty("mafia.binary", "true"));
+
+    // 서버 연결은 화면이 바뀌어도 하나를 계속 씀 (게임 후 로비로 돌아와도 새로 접속하지 않음)
+    private static Client client;
+    // 수신 메시지 → 화면 스레드 묶음 처리 (연결과 함께 하나를 계속 씀, 전체 목록 메시지는 묶음마다 마지막 것만)
+    private static final UpdateQueue updates = new UpdateQueue(Platform::runLater, Opcode.PLAYER_LIST, Opcode.ROOM_LIST);
+
+    // 방 목록 상태 (FX 스레드에서만 사용)
+    // - 화면에는 검색 결과 한 페이지만 보임 (ROOM_QUERY → ROOM_PAGE)
+    // - roomIds는 roomList 항목과 같은 순서의 방 번호 → 이진 탐색으로 바뀐 줄만 고침
+    private final List<Integer> roomIds = new ArrayList<>();
+    private long roomListVersion = 0;
+    private boolean resyncPending = false;
+    private int pageCursor = 0;                 // 지금 페이지를 요청한 커서
+    private int nextCursor = 0;                 // 다음 페이지 커서 (0이면 마지막 페이지)
+    private final Deque<Integer> prevCursors = new ArrayDeque<>();
 
     @FXML
     public void initialize() {
 
-        client = new Client();
+        updates.setListener(dispatcher());
 
-        // 서버 연결
-        if (!client.connect("localhost", 6000, this::onMessageReceived)) {
-            statusLabel.setText("❌ 서버 연결 실패");
-            return;
+        if (client != null && client.isConnected()) {
+            // 게임방에서 돌아옴 → 기존 연결을 그대로 씀 (수신자만 로비로 바뀜)
+            client.setMessageHandler(updates);
+        } else {
+            client = new Client();
+
+            // 서버 연결
+            if (!client.connect("localhost", 6000, updates, USE_BINARY)) {
+                statusLabel.setText("❌ 서버 연결 실패");
+                return;
+            }
         }
 
         // 기본 모드 설정
@@ -43,6 +88,12 @@ public class LobbyController {
             limitBox.getItems().setAll(5, 6, 7, 8, 9, 10);
         }
 
+        // 페이즈 길이 선택지 (기본값 = 서버 기본값, 서버가 범위를 한 번 더 자름)
+        setupSeconds(discussionBox, 10, 10, 20, 30, 60, 90, 120);
+        setupSeconds(voteBox, 10, 10, 15, 20, 30, 60);
+        setupSeconds(nightBox, 30, 15, 30, 45, 60, 90);
+        setupSeconds(abilityBox, 15, 10, 15, 20, 30);
+
         // 비밀번호 필드 - 숫자 4자리만 입력 가능
         if (passwordField != null) {
             passwordField.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -56,65 +107,217 @@ public class LobbyController {
             });
         }
 
-        // 방 목록 요청
-        client.send("GET_ROOMS");
-    }
-
-    /** 서버에서 오는 메시지 처리 */
-    private void onMessageReceived(String msg) {
-
-        // 방 리스트 업데이트
-        if (msg.startsWith("ROOM_LIST|")) {
-            Platform.runLater(() -> updateRoomList(msg));
+        // 방 검색 조건 (바꾸면 첫 페이지부터 다시)
+        if (filterModeBox != null) {
+            filterModeBox.getItems().setAll("ALL", "CLASSIC", "SPECIAL");
+            filterModeBox.setValue("ALL");
+            filterModeBox.setOnAction(e -> firstPage());
         }
-
-        // 방 생성 완료
-        else if (msg.startsWith("ROOM_CREATED")) {
-            client.send("GET_ROOMS");
+        if (sortBox != null) {
+            sortBox.getItems().setAll("NEWEST", "OLDEST");
+            sortBox.setValue("NEWEST");
+            sortBox.setOnAction(e -> firstPage());
         }
+        if (freeOnlyCheck != null) freeOnlyCheck.setOnAction(e -> firstPage());
+        if (noPasswordCheck != null) noPasswordCheck.setOnAction(e -> firstPage());
 
-        // 방 입장 성공
-        else if (msg.startsWith("JOIN_OK|")) {
-            String[] p = msg.split("\\|");
-            String roomId = p[1];
-            String roomName = p[2];
-            String hostNickname = (p.length >= 4) ? p[3] : null;
+        // 첫 페이지 요청 → 응답 버전부터 델타 구독
+        firstPage();
+    }
 
-            String myNickname = nicknameField.getText().trim();
+    /** 🔵 서버 메시지 → 처리기 표 (UpdateQueue가 FX 스레드에서 부름) */
+    private EventDispatcher dispatcher() {
+        return new EventDispatcher()
+                .on(Opcode.ROOM_LIST, this::updateRoomList)          // 방 리스트 업데이트
+                .on(Opcode.ROOM_PAGE, this::applyRoomPage)           // 방 검색 결과 한 페이지
+                .on(Opcode.ROOM_ADDED, this::applyRoomListEvent)     // 방 목록 델타/스냅샷
+                .on(Opcode.ROOM_UPDATED, this::applyRoomListEvent)
+                .on(Opcode.ROOM_REMOVED, this::applyRoomListEvent)
+                .on(Opcode.ROOM_SNAPSHOT_END, this::applyRoomListEvent)
+                .on(Opcode.ROOM_CREATED, e -> requestPage(pageCursor)) // 방 생성 완료
+                .on(Opcode.JOIN_OK, this::handleJoinOk)
+                .on(Opcode.JOIN_FAIL, this::handleJoinFail);
+        // ROOM_SNAPSHOT / ROOM_ENTRY: 화면에는 한 페이지만 보이므로 스냅샷 내용은 쓰지 않음 (끝나면 지금 페이지를 다시 요청)
+    }
 
-            Platform.runLater(() -> enterGameRoom(roomId, roomName, hostNickname, myNickname));
-        }
+    /** 방 입장 성공 (JOIN_OK|방번호|방이름|방장) */
+    private void handleJoinOk(ServerEvent e) {
+        String roomId = e.field(1);
+        String roomName = e.field(2);
+        String hostNickname = e.field(3);
 
-        // 방 입장 실패
-        else if (msg.startsWith("JOIN_FAIL|")) {
-            Platform.runLater(() -> {
-                String reason;
-                if (msg.contains("FULL")) {
-                    reason = "방이 꽉 찼습니다.";
-                } else if (msg.contains("WRONG_PASSWORD")) {
-                    reason = "비밀번호가 틀렸습니다.";
-                } else {
-                    reason = "방을 찾을 수 없습니다.";
-                }
-                statusLabel.setText("❌ 입장 실패: " + reason);
-            });
+        String myNickname = nicknameField.getText().trim();
+
+        enterGameRoom(roomId, roomName, hostNickname, myNickname);
+    }
+
+    /** 방 입장 실패 (JOIN_FAIL|사유) */
+    private void handleJoinFail(ServerEvent e) {
+        String msg = e.line();
+        String reason;
+        if (msg.contains("FULL")) {
+            reason = "방이 꽉 찼습니다.";
+        } else if (msg.contains("WRONG_PASSWORD")) {
+            reason = "비밀번호가 틀렸습니다.";
+        } else if (msg.contains("DUPLICATE_NICKNAME")) {
+            reason = "같은 닉네임이 이미 방에 있습니다.";
+        } else if (msg.contains("IN_GAME")) {
+            reason = "진행 중인 게임에서 아직 나가지 않았습니다.";
+        } else if (msg.contains("GAME_STARTED")) {
+            reason = "이미 게임이 시작된 방입니다.";
+        } else {
+            reason = "방을 찾을 수 없습니다.";
         }
+        statusLabel.setText("❌ 입장 실패: " + reason);
     }
 
-    /** 방 리스트 업데이트 */
-    private void updateRoomList(String msg) {
+    /** 방 리스트 업데이트 (전체 목록 — 델타를 모르는 서버용) */
+    private void updateRoomList(ServerEvent e) {
         roomList.getItems().clear();
+        roomIds.clear();
 
-        String data = msg.substring("ROOM_LIST|".length());
+        String data = e.rest(1);
         String[] rooms = data.split(",");
 
         for (String r : rooms) {
             if (!r.trim().isEmpty()) {
                 roomList.getItems().add(r.trim());
+                roomIds.add(parseDisplayId(r.trim()));
+            }
+        }
+    }
+
+    /** 🔵 검색 조건을 바꿈 → 첫 페이지부터 */
+    private void firstPage() {
+        prevCursors.clear();
+        requestPage(0);
+    }
+
+    /** 이전 페이지 버튼 */
+    @FXML
+    private void handlePrevPage() {
+        if (prevCursors.isEmpty()) return;
+        requestPage(prevCursors.pop());
+    }
+
+    /** 다음 페이지 버튼 */
+    @FXML
+    private void handleNextPage() {
+        if (nextCursor == 0) return;
+        prevCursors.push(pageCursor);
+        requestPage(nextCursor);
+    }
+
+    private void requestPage(int cursor) {
+        pageCursor = cursor;
+        String mode = filterModeBox != null && filterModeBox.getValue() != null ? filterModeBox.getValue() : "ALL";
+        boolean freeOnly = freeOnlyCheck != null && freeOnlyCheck.isSelected();
+        boolean noPassword = noPasswordCheck != null && noPasswordCheck.isSelected();
+        client.queryRooms(mode, freeOnly, noPassword, newestFirst() ? "NEWEST" : "OLDEST", cursor, ROOM_PAGE_SIZE);
+    }
+
+    /** ROOM_PAGE|버전|다음커서|개수|(id|이름|현재인원|최대인원|잠금|모드) × 개수 */
+    private void applyRoomPage(ServerEvent e) {
+        long version = e.longField(1, -1);
+        nextCursor = e.intField(2, -1);
+
+        List<Integer> ids = new ArrayList<>();
+        List<String> items = new ArrayList<>();
+        for (int i = 4; i + 6 <= e.count(); i += 6) {
+            ids.add(e.intField(i, -1));
+            items.add(roomDisplay(e, i));
+        }
+        roomIds.clear();
+        roomIds.addAll(ids);
+        roomList.getItems().setAll(items);
+
+        if (prevPageButton != null) prevPageButton.setDisable(prevCursors.isEmpty());
+        if (nextPageButton != null) nextPageButton.setDisable(nextCursor == 0);
+
+        // 이 페이지 버전 이후 변경을 델타로 받음 (이미 반영한 델타가 다시 와도 같은 결과)
+        roomListVersion = version;
+        resyncPending = false;
+        client.syncRooms(version);
+    }
+
+    /** 🔵 방 목록 델타 반영 (목록 전체를 다시 만들지 않고 보이는 페이지의 바뀐 줄만 고침) */
+    private void applyRoomListEvent(ServerEvent e) {
+        if (e.op() == Opcode.ROOM_SNAPSHOT_END) {
+            roomListVersion = e.longField(1, -1);
+            requestPage(pageCursor);
+            return;
+        }
+
+        // ROOM_ADDED / ROOM_UPDATED / ROOM_REMOVED |버전|id|...
+        long version = e.longField(1, -1);
+        if (version <= roomListVersion) return; // 이미 반영함
+        if (version != roomListVersion + 1) {
+            // 중간 델타를 놓침 → 지금 페이지를 다시 요청 (응답 올 때까지 나머지는 무시)
+            if (!resyncPending) {
+                resyncPending = true;
+                requestPage(pageCursor);
+            }
+            return;
+        }
+        roomListVersion = version;
+
+        int id = e.intField(2, -1);
+        Comparator<Integer> order = newestFirst() ? Collections.reverseOrder() : Comparator.naturalOrder();
+        int pos = Collections.binarySearch(roomIds, id, order);
+
+        if (e.op() == Opcode.ROOM_REMOVED || !matchesFilter(e, 2)) {
+            if (pos >= 0) {
+                roomIds.remove(pos);
+                roomList.getItems().remove(pos);
+            }
+        } else if (pos >= 0) {
+            roomList.getItems().set(pos, roomDisplay(e, 2));
+        } else {
+            // 이 페이지 범위 안에 들어오는 방만 추가 (앞/뒤 페이지 몫이면 무시)
+            int at = -pos - 1;
+            boolean afterPrevPage = at > 0 || prevCursors.isEmpty();
+            boolean beforeNextPage = at < roomIds.size() || nextCursor == 0;
+            if (afterPrevPage && beforeNextPage) {
+                roomIds.add(at, id);
+                roomList.getItems().add(at, roomDisplay(e, 2));
             }
         }
     }
 
+    private boolean newestFirst() {
+        return sortBox == null || !"OLDEST".equals(sortBox.getValue());
+    }
+
+    /** i번째 필드부터 id|이름|현재인원|최대인원|잠금|모드 → 지금 검색 조건에 맞는지 */
+    private boolean matchesFilter(ServerEvent e, int i) {
+        String mode = filterModeBox != null ? filterModeBox.getValue() : null;
+        if (mode != null && !"ALL".equals(mode) && !mode.equalsIgnoreCase(e.field(i + 5, ""))) return false;
+        if (freeOnlyCheck != null && freeOnlyCheck.isSelected() && e.intField(i + 2, -1) >= e.intField(i + 3, -1)) return false;
+        if (noPasswordCheck != null && noPasswordCheck.isSelected() && e.fieldEquals(i + 4, "1")) return false;
+        return true;
+    }
+
+    /** i번째 필드부터 id|이름|현재인원|최대인원|잠금|모드 → "🔒 #3 방이름 (2/8)" (ROOM_LIST와 같은 표시) */
+    private static String roomDisplay(ServerEvent e, int i) {
+        String lockIcon = e.fieldEquals(i + 4, "1") ? "🔒 " : "";
+        return lockIcon + "#" + e.field(i) + " " + e.field(i + 1) + " (" + e.field(i + 2) + "/" + e.field(i + 3) + ")";
+    }
+
+    /** "🔒 #3 방이름 (2/8)" → 3 */
+    private static int parseDisplayId(String display) {
+        int hash = display.indexOf('#');
+        int space = display.indexOf(' ', hash);
+        return parseInt(display.substring(hash + 1, space < 0 ? display.length() : space));
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /** 방 생성 버튼 클릭 */
     @FXML
     private void handleCreateRoom() {
@@ -152,13 +355,29 @@ public class LobbyController {
             }
         }
 
-        // 서버에 방 생성 요청 (비밀번호 포함)
-        client.send("CREATE_ROOM|" + nickname + "|" + roomName + "|" + mode + "|" + limit + "|" + password);
+        // 서버에 방 생성 요청 (비밀번호 + 페이즈 길이, 최소시간 칸은 비워서 서버 기본값)
+        // CREATE_ROOM|방장|방이름|모드|인원|비밀번호|최소시간|토론|투표|밤|능력
+        client.send("CREATE_ROOM|" + nickname + "|" + roomName + "|" + mode + "|" + limit + "|" + password
+                + "||" + secondsField(discussionBox) + "|" + secondsField(voteBox)
+                + "|" + secondsField(nightBox) + "|" + secondsField(abilityBox));
 
         String pwdInfo = password.isEmpty() ? "비밀번호 없음" : "비밀번호 설정됨";
         statusLabel.setText("방 생성 완료! (방장: " + nickname + ", 모드: " + mode + ", 인원: " + limit + ", " + pwdInfo + ")");
     }
 
+    /** 페이즈 길이 선택 상자 채우기 */
+    private static void setupSeconds(ComboBox<Integer> box, int defaultSeconds, Integer... choices) {
+        if (box == null) return;
+        box.getItems().setAll(choices);
+        box.setValue(defaultSeconds);
+    }
+
+    /** 선택한 초 (상자가 없거나 선택 안 했으면 빈 칸 → 서버 기본값) */
+    private static String secondsField(ComboBox<Integer> box) {
+        Integer value = box != null ? box.getValue() : null;
+        return value != null ? String.valueOf(value) : "";
+    }
+
     /** 방 입장 버튼 클릭 */
     @FXML
     private void handleJoinRoom() {
@@ -213,9 +432,9 @@ public class LobbyController {
             }
         }
 
-        // 방 ID 추출
-        String roomIdPart = hasPassword ? selected.split(" ")[1] : selected.split(" ")[0];
-        String roomId = roomIdPart.substring(1).trim();
+        // 방 ID (목록 줄과 같은 순서로 들고 있는 번호 → 방 이름에 공백/쉼표가 있어도 안전)
+        int index = roomList.getSelectionModel().getSelectedIndex();
+        String roomId = String.valueOf(roomIds.get(index));
 
         // 비밀번호 포함하여 서버에 전송
         client.send("JOIN_ROOM|" + nickname + "|" + roomId + "|" + password);
@@ -225,7 +444,7 @@ public class LobbyController {
     /** GameRoom으로 화면 전환 */
     private void enterGameRoom(String roomId, String roomName, String hostNickname, String myNickname) {
         try {
-            GameRoomController.init(client, roomId, roomName, myNickname, hostNickname);
+            GameRoomController.init(client, updates, roomId, roomName, myNickname, hostNickname);
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/client/ui/GameRoom.fxml"));
             Parent root = loader.load();
@@ -0,0 +1,77 @@
+package client.ui;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+/**
+ * PhaseCountdown - 페이즈 남은 시간 표시 (게임방 화면에 하나, 페이즈마다 재사용)
+ * - 예전: 페이즈마다 스레드를 새로 만들고 1초씩 sleep → 밀린 만큼 서버 페이즈와 어긋나고, 이전 스레드가 안 멈추는 경우도 있음
+ * - 지금: JavaFX Timeline 하나가 FX 스레드에서 마감 시각까지 남은 시간을 다시 계산
+ *   → 스레드 없음, 늦게 깨어나도 표시가 밀리지 않음
+ * - 표시할 초가 바뀔 때만 라벨을 다시 씀
+ * - FX 스레드에서만 호출할 것
+ */
+final class PhaseCountdown {
+
+    // 초 경계를 놓치지 않을 만큼만 자주 확인 (라벨은 초가 바뀔 때만 갱신)
+    private static final Duration TICK = Duration.millis(200);
+
+    private final Label label;
+    private final Timeline timeline;
+
+    private String phaseName;
+    private long deadlineNanos;   // 내 단조 시계 기준 마감 시각
+    private long shownSeconds = -1; // 마지막으로 표시한 초 (-1 = 아직 없음)
+
+    PhaseCountdown(Label label) {
+        this.label = label;
+        this.timeline = new Timeline(new KeyFrame(TICK, e -> tick()));
+        this.timeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /**
+     * 🔵 새 페이즈 카운트다운 시작 (진행 중이던 것은 교체)
+     * @param deadlineNanos 마감 시각 (System.nanoTime 기준 — 메시지를 받은 순간에 계산해 넘기면 FX 큐 대기 시간도 반영됨)
+     */
+    void start(String phaseName, long deadlineNanos) {
+        this.phaseName = phaseName;
+        this.deadlineNanos = deadlineNanos;
+        this.shownSeconds = -1;
+        tick();
+        timeline.play();
+    }
+
+    /** 🔵 진행 중인 페이즈의 마감 시각만 바꿈 (모두 행동해서 서버가 마감을 앞당김), 페이즈가 없으면 무시 */
+    void reschedule(long deadlineNanos) {
+        if (phaseName != null) start(phaseName, deadlineNanos);
+    }
+
+    /** 페이즈 결과가 나옴 → 남은 시간과 상관없이 종료 표시 후 멈춤 */
+    void finish() {
+        timeline.stop();
+        if (phaseName != null) label.setText(phaseName + " 종료!");
+    }
+
+    /** 카운트다운 멈춤 (게임 종료 / 화면 전환) */
+    void stop() {
+        timeline.stop();
+    }
+
+    private void tick() {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            timeline.stop();
+            label.setText(phaseName + " 종료!");
+            return;
+        }
+
+        long seconds = (remaining + 999_999_999L) / 1_000_000_000L; // 올림 (0.3초 남음 → 1초)
+        if (seconds != shownSeconds) {
+            shownSeconds = seconds;
+            label.setText(phaseName + " - " + seconds + "초");
+        }
+    }
+}
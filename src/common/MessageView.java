@@ -0,0 +1,121 @@
+package common;
+
+/**
+ * MessageView - 텍스트 프로토콜 한 줄을 '|' 기준으로 나눈 뷰 (서버 Command / 클라이언트 ServerEvent 공용)
+ * - split() 처럼 배열/부분 문자열을 만들지 않고 구분자 위치만 기록해 두고 꺼낼 때 잘라냄
+ * - 명령 종류는 Opcode (startsWith 연쇄 비교 대신 코드표 한 번 조회)
+ * - 필드 번호는 split 결과와 같음: field(0) = 명령 이름, field(1) = 첫 번째 값 ...
+ * - 필드 수 제한이 있으면 위치 배열을 재사용 (마지막 필드가 나머지를 모두 가짐), 없으면 줄마다 딱 맞게 만듦
+ */
+public class MessageView {
+
+    private final int maxFields; // 0 = 제한 없음
+    private String line;
+    private Opcode op;
+    private int count;
+    // starts[i] = i번째 필드 시작 위치, starts[count] = 끝 + 1 (마지막 필드 끝 계산용)
+    private int[] starts;
+
+    /** @param maxFields 최대 필드 수 (0 = 제한 없음 → 줄마다 위치 배열을 새로 만듦) */
+    protected MessageView(int maxFields) {
+        this.maxFields = maxFields;
+        if (maxFields > 0) this.starts = new int[maxFields + 1];
+    }
+
+    /** 🔵 한 줄로 채우기 (필드 수 제한이 있으면 할당 없음) */
+    protected final void load(String line) {
+        int len = line.length();
+        if (maxFields == 0) {
+            int n = 1;
+            for (int i = line.indexOf('|'); i >= 0; i = line.indexOf('|', i + 1)) n++;
+            starts = new int[n + 1];
+        }
+
+        this.line = line;
+        count = 0;
+        starts[0] = 0;
+        int i = 0;
+        while (maxFields == 0 || count < maxFields - 1) {
+            int sep = line.indexOf('|', i);
+            if (sep < 0) break;
+            starts[++count] = sep + 1;
+            i = sep + 1;
+        }
+        count++;
+        starts[count] = len + 1;
+
+        int nameEnd = count > 1 ? starts[1] - 1 : len;
+        op = Opcode.lookup(line, nameEnd);
+    }
+
+    /** 원본 메시지 */
+    public String line() {
+        return line;
+    }
+
+    /** 명령 종류 (표에 없는 명령이면 RAW) */
+    public Opcode op() {
+        return op;
+    }
+
+    /** 필드 수 (명령 이름 포함, split(..., -1) 길이와 같음) */
+    public int count() {
+        return count;
+    }
+
+    /** i번째 필드 문자열 (없으면 null) */
+    public String field(int i) {
+        if (i >= count) return null;
+        return line.substring(starts[i], starts[i + 1] - 1);
+    }
+
+    /** i번째 필드 (없으면 fallback) */
+    public String field(int i, String fallback) {
+        String value = field(i);
+        return value != null ? value : fallback;
+    }
+
+    /** i번째 필드부터 끝까지 ('|' 포함) — 채팅 본문처럼 '|'가 들어갈 수 있는 마지막 값용, 없으면 "" */
+    public String rest(int i) {
+        if (i >= count) return "";
+        return line.substring(starts[i]);
+    }
+
+    /** i번째 필드가 주어진 문자열과 같은지 (할당 없음) */
+    public boolean fieldEquals(int i, String value) {
+        if (i >= count) return false;
+        int start = starts[i];
+        int len = starts[i + 1] - 1 - start;
+        return len == value.length() && line.regionMatches(start, value, 0, len);
+    }
+
+    /** i번째 필드가 비어 있는지 (없는 필드도 비어 있는 것으로 봄) */
+    public boolean isEmpty(int i) {
+        return i >= count || starts[i + 1] - 1 == starts[i];
+    }
+
+    /** i번째 필드를 정수로 (없거나 숫자가 아니면 fallback) */
+    public int intField(int i, int fallback) {
+        if (isEmpty(i)) return fallback;
+        try {
+            return Integer.parseInt(field(i).trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /** i번째 필드를 long으로 (없거나 숫자가 아니면 fallback) — 버전/시각처럼 int를 넘을 수 있는 값 */
+    public long longField(int i, long fallback) {
+        if (isEmpty(i)) return fallback;
+        try {
+            return Long.parseLong(field(i).trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
@@ -0,0 +1,131 @@
+package common;
+
+/**
+ * 바이너리 프로토콜 명령 코드표 (서버/클라이언트 공용)
+ * - 텍스트 프로토콜의 명령 이름 ("VOTE", "CHAT" ...) ↔ 1바이트 코드
+ * - 코드는 한 번 정하면 바꾸지 말 것 (새 명령은 뒤에 추가)
+ * - 표에 없는 명령은 RAW(0)로 보내고 이름을 첫 필드에 실어 보냄
+ */
+public enum Opcode {
+
+    RAW(0),
+
+    // 클라이언트 → 서버
+    GET_ROOMS(1),
+    CREATE_ROOM(2),
+    JOIN_ROOM(3),
+    CHAT(4),
+    MAFIA_CHAT(5),
+    GHOST_CHAT(6),
+    GET_PLAYERS(7),
+    START_GAME(8),
+    VOTE(9),
+    NIGHT_ACTION(10),
+    HACKER_CHANGE(11),
+    FORGER_CHANGE(12),
+    TIME_MANAGER_CHOICE(13),
+    TRACKER_TARGET(14),
+    ROOM_SYNC(15),
+    LEAVE_ROOM(16),
+    ROOM_QUERY(17),
+    TIME_SYNC(18), // 서버 → 클라이언트 응답도 같은 코드
+
+    // 서버 → 클라이언트
+    ROOM_LIST(32),
+    ROOM_CREATED(33),
+    JOIN_OK(34),
+    JOIN_FAIL(35),
+    PLAYER_LIST(36),
+    ROLE(37),
+    DAY_START(38),
+    VOTE_START(39),
+    VOTE_RESULT(40),
+    NIGHT_START(41),
+    NIGHT_RESULT(42),
+    POLICE_RESULT(43),
+    HACKER_VOTE_INFO(44),
+    HACKER_PROMPT(45),
+    FORGER_PROMPT(46),
+    TIME_MANAGER_PROMPT(47),
+    TIME_MANAGER_SKIP(48),
+    DESTINY_TARGETS(49),
+    THIEF_STOLEN(50),
+    TRACKER_RESULT(51),
+    JESTER_WIN(52),
+    GAME_OVER(53),
+    ENTER_LOBBY(54),
+    ERROR(55),
+    ROOM_ADDED(56),
+    ROOM_UPDATED(57),
+    ROOM_REMOVED(58),
+    ROOM_SNAPSHOT(59),
+    ROOM_ENTRY(60),
+    ROOM_SNAPSHOT_END(61),
+    ROOM_PAGE(62),
+    PHASE_DEADLINE(63);
+
+    private static final Opcode[] BY_CODE = new Opcode[256];
+
+    // 명령 이름 해시 테이블 (선형 탐사) → 문자열을 잘라내지 않고 줄 앞부분만 보고 찾음
+    private static final int PREFIX_TABLE_SIZE = 128;
+    private static final Opcode[] BY_PREFIX = new Opcode[PREFIX_TABLE_SIZE];
+
+    static {
+        for (Opcode op : values()) {
+            BY_CODE[op.code] = op;
+            if (op == RAW) continue;
+
+            int slot = prefixHash(op.name(), op.name().length()) & (PREFIX_TABLE_SIZE - 1);
+            while (BY_PREFIX[slot] != null) {
+                slot = (slot + 1) & (PREFIX_TABLE_SIZE - 1);
+            }
+            BY_PREFIX[slot] = op;
+        }
+    }
+
+    private final int code;
+
+    Opcode(int code) {
+        this.code = code;
+    }
+
+    /** 1바이트 코드 */
+    public int code() {
+        return code;
+    }
+
+    /** 코드 → Opcode (모르는 코드면 null) */
+    public static Opcode fromCode(int code) {
+        return (code >= 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+    }
+
+    /** 명령 이름 → Opcode (모르는 이름이면 RAW) */
+    public static Opcode fromName(String name) {
+        return lookup(name, name.length());
+    }
+
+    /**
+     * 🔵 메시지 앞 len글자(명령 이름 부분) → Opcode, 할당 없음 (모르는 이름이면 RAW)
+     * 예: lookup("VOTE|a|b", 4) → VOTE
+     */
+    public static Opcode lookup(String line, int len) {
+        int slot = prefixHash(line, len) & (PREFIX_TABLE_SIZE - 1);
+        Opcode op;
+        while ((op = BY_PREFIX[slot]) != null) {
+            String name = op.name();
+            if (name.length() == len && line.regionMatches(0, name, 0, len)) {
+                return op;
+            }
+            slot = (slot + 1) & (PREFIX_TABLE_SIZE - 1);
+        }
+        return RAW;
+    }
+
+    private static int prefixHash(String s, int len) {
+        int h = 0;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 7);
+    }
+}
@@ -0,0 +1,121 @@
+package common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 직업표 (서버/클라이언트 공용)
+ * - 팀, 1회용 능력 여부, 자기 지목 가능 여부, 화면 표시 이름, 밤 행동 안내, 역할 안내를 직업마다 상수로 가짐
+ *   (밤 행동 안내가 있는 직업 = 밤 능력이 있는 직업)
+ *   → "MAFIA".equals(r) || "FORGER".equals(r) || ... 같은 문자열 비교 대신 필드 한 번 읽기
+ * - 프로토콜에는 지금처럼 이름(name())으로 실어 보냄 ("ROLE|닉네임|MAFIA")
+ * - 새 직업은 여기에 한 줄 추가 (팀/능력 판정은 자동으로 따라옴)
+ */
+public enum Role {
+
+    //            팀            1회용   자기 지목  표시 이름
+    //            밤 행동 안내 (%s = 대상, null = 밤 능력 없음) / 역할 안내 (null = 없음)
+    MAFIA(        Team.MAFIA,   false,  false,  "마피아 🔴",
+                  "🔪 [%s]님을 공격합니다...", null),
+    FORGER(       Team.MAFIA,   true,   false,  "위조범 🎭",
+                  null, "🎭 위조범: 투표로 죽은 사람의 직업을 1회 위조할 수 있습니다."),
+    HACKER(       Team.MAFIA,   true,   false,  "해커 🔧",
+                  null, "🔧 해커: 투표 결과를 먼저 받고 1회 조작할 수 있습니다."),
+    JESTER(       Team.NEUTRAL, false,  false,  "광대 🎭",
+                  null, "🎭 광대: 낮 투표로 처형되면 승리합니다!"),
+    THIEF(        Team.NEUTRAL, false,  false,  "도둑 🎭",
+                  null, "🎭 도둑: 첫 사망자의 직업을 훔칠 수 있습니다."),
+    POLICE(       Team.CIVIL,   false,  false,  "경찰 🔍",
+                  "🔍 [%s]님을 조사합니다...", null),
+    DOCTOR(       Team.CIVIL,   false,  true,   "의사 💉",
+                  "💉 [%s]님을 보호합니다...", null),
+    TIME_MANAGER( Team.CIVIL,   true,   false,  "시간 관리자 ⏰",
+                  null, "⏰ 시간 관리자: 투표 시 밤을 건너뛸 수 있습니다 (1회)."),
+    DESTINY(      Team.CIVIL,   false,  false,  "운명가 🔮",
+                  null, "🔮 운명가: 첫 날 3명의 이름을 받습니다 (1명은 반드시 마피아)."),
+    TRACKER(      Team.CIVIL,   false,  false,  "추적자 🔍",
+                  "🔍 [%s]님을 추적합니다...", "🔍 추적자: 밤마다 한 명을 지정해 누구에게 행동했는지 알 수 있습니다."),
+    CIVILIAN(     Team.CIVIL,   false,  false,  "시민 👤",
+                  null, null);
+
+    /** 승리 판정 기준 팀 */
+    public enum Team { MAFIA, NEUTRAL, CIVIL }
+
+    private static final Map<String, Role> BY_NAME = new HashMap<>();
+
+    static {
+        for (Role r : values()) BY_NAME.put(r.name(), r);
+    }
+
+    private final Team team;
+    private final boolean oneShot;
+    private final boolean selfTarget;
+    private final String display;
+    private final String nightAction;
+    private final String hint;
+
+    Role(Team team, boolean oneShot, boolean selfTarget, String display, String nightAction, String hint) {
+        this.team = team;
+        this.oneShot = oneShot;
+        this.selfTarget = selfTarget;
+        this.display = display;
+        this.nightAction = nightAction;
+        this.hint = hint;
+    }
+
+    public Team team() {
+        return team;
+    }
+
+    /** 마피아팀인지 (마피아 채팅, 경찰 조사 결과, 승리 판정) */
+    public boolean isMafiaTeam() {
+        return team == Team.MAFIA;
+    }
+
+    /** 밤에 대상을 골라 쓰는 능력이 있는지 */
+    public boolean hasNightAbility() {
+        return nightAction != null;
+    }
+
+    /** 밤 능력을 자신에게도 쓸 수 있는지 (의사의 자기 보호) */
+    public boolean canTargetSelf() {
+        return selfTarget;
+    }
+
+    /** 밤 능력을 쓸 때 보여줄 안내 (예: "🔪 [철수]님을 공격합니다..."), 밤 능력이 없으면 null */
+    public String nightActionMessage(String target) {
+        return nightAction != null ? String.format(nightAction, target) : null;
+    }
+
+    /** 역할을 받았을 때 보여줄 능력 안내 (없으면 null) */
+    public String hint() {
+        return hint;
+    }
+
+    /** 한 게임에 한 번만 쓸 수 있는 능력인지 */
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    /** 화면 표시 이름 (예: "마피아 🔴") */
+    public String display() {
+        return display;
+    }
+
+    /** 🔵 프로토콜 문자열 → 직업 (모르는 이름이거나 null이면 null, 예외 없음) */
+    public static Role of(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
+
+    /** 문자열로 받은 직업이 마피아팀인지 (모르는 이름이면 false) */
+    public static boolean isMafiaTeam(String name) {
+        Role r = of(name);
+        return r != null && r.isMafiaTeam();
+    }
+
+    /** 문자열로 받은 직업의 표시 이름 (모르는 이름이면 그대로) */
+    public static String displayOf(String name) {
+        Role r = of(name);
+        return r != null ? r.display : name;
+    }
+}
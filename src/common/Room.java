@@ -1,31 +1,44 @@
 package common;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 게임 방 정보 클래스.
  * - id: 방 고유 번호
  * - name: 방 이름
- * - players: 방에 속한 플레이어 닉네임 목록
+ * - players: 방에 속한 플레이어 닉네임 목록 (연결 스레드가 넣고 빼는 동안 방 작업/목록 스레드가 읽음 → CopyOnWrite)
+ * - inGame: 게임을 시작한 방 → 새 입장을 막음 (players 추가와 같은 잠금)
  * - limit: 최대 인원 수
  * - hostNickname: 방장 닉네임 (게임 시작 권한자)
  * - mode: 게임 모드 (CLASSIC / SPECIAL 등)
+ * - minPhaseSeconds: 모두 행동해서 투표/밤이 일찍 끝날 때도 최소한 유지할 시간 (0 = 바로 끝냄)
+ * - discussion/vote/night/abilitySeconds: 페이즈 길이 (토론 / 투표 / 밤 / 해커·위조범 응답 대기), 방 만들 때 정함
+ * - gameState: 서버가 게임 시작 때 붙이는 진행 상태 (클라이언트에서는 사용 안 함)
  */
 public class Room {
 
     private int id;
     private String name;
-    private List<String> players;   // 방에 속한 플레이어 이름들
+    private final List<String> players = new CopyOnWriteArrayList<>(); // 방에 속한 플레이어 이름들
+    private boolean inGame;         // 게임 시작됨 → 입장 불가 (this 잠금)
     private int limit = 10;         // 최대 인원
     private String hostNickname;    // 방장 닉네임
     private String mode = "CLASSIC"; // 기본 모드
     private String password = "";    // 방 비밀번호 (빈 문자열 = 비밀번호 없음)
+    private int minPhaseSeconds;     // 투표/밤 조기 종료 최소 시간 (초)
+    // 페이즈 길이 (초)
+    private int discussionSeconds = 10;
+    private int voteSeconds = 10;
+    private int nightSeconds = 30;
+    private int abilitySeconds = 15;
+    private volatile Object gameState; // 서버 전용 게임 상태 (common이 서버 클래스를 모르도록 Object)
 
     public Room(int id, String name) {
         this.id = id;
         this.name = name;
-        this.players = new ArrayList<>();
     }
 
     public int getId() {
@@ -36,8 +49,48 @@ public class Room {
         return name;
     }
 
+    /** 플레이어 목록 (읽기 전용, 순회 중 입장/퇴장이 있어도 안전) → 바꿀 때는 addPlayer/removePlayer */
     public List<String> getPlayers() {
-        return players;
+        return Collections.unmodifiableList(players);
+    }
+
+    /**
+     * 🔵 입장: 인원/게임 진행 확인과 추가를 한 번에 (동시에 들어와도 최대 인원을 넘지 않음)
+     * - 게임이 시작된 방은 이미 목록에 있는 이름이어도 거절 → 게임 중 나간 사람 자리를 다른 연결이 이어받지 못함
+     * @return 이미 있거나 넣었으면 true, 꽉 찼거나 게임이 시작된 방이면 false
+     */
+    public synchronized boolean addPlayer(String nickname) {
+        if (inGame) return false;
+        if (players.contains(nickname)) return true;
+        if (players.size() >= limit) return false;
+        players.add(nickname);
+        return true;
+    }
+
+    /** 퇴장 */
+    public synchronized boolean removePlayer(String nickname) {
+        return players.remove(nickname);
+    }
+
+    /** 첫 번째 플레이어 (방장이 없을 때 대신 씀, 아무도 없으면 null) */
+    public synchronized String getFirstPlayer() {
+        return players.isEmpty() ? null : players.get(0);
+    }
+
+    /** 🔵 게임 시작: 입장을 막고 그 순간의 플레이어 목록을 돌려줌 (이 목록으로 번호/역할을 정함) */
+    public synchronized List<String> beginGame() {
+        inGame = true;
+        return new ArrayList<>(players);
+    }
+
+    /** 게임 시작 취소 (시작 조건이 안 맞을 때) → 다시 입장 가능 */
+    public synchronized void cancelGame() {
+        inGame = false;
+    }
+
+    /** 게임이 시작된 방인지 (끝난 게임도 포함 → 끝난 방에는 들어가지 않음) */
+    public synchronized boolean isInGame() {
+        return inGame;
     }
 
     public int getLimit() {
@@ -89,6 +142,62 @@ public class Room {
         return password.equals(inputPassword);
     }
 
+    /** 투표/밤 조기 종료 최소 시간 (초) */
+    public int getMinPhaseSeconds() {
+        return minPhaseSeconds;
+    }
+
+    /** 투표/밤 조기 종료 최소 시간 설정 (음수는 0) */
+    public void setMinPhaseSeconds(int minPhaseSeconds) {
+        this.minPhaseSeconds = Math.max(0, minPhaseSeconds);
+    }
+
+    /** 낮 토론 시간 (초) */
+    public int getDiscussionSeconds() {
+        return discussionSeconds;
+    }
+
+    public void setDiscussionSeconds(int discussionSeconds) {
+        this.discussionSeconds = discussionSeconds;
+    }
+
+    /** 투표 시간 (초) */
+    public int getVoteSeconds() {
+        return voteSeconds;
+    }
+
+    public void setVoteSeconds(int voteSeconds) {
+        this.voteSeconds = voteSeconds;
+    }
+
+    /** 밤 시간 (초) */
+    public int getNightSeconds() {
+        return nightSeconds;
+    }
+
+    public void setNightSeconds(int nightSeconds) {
+        this.nightSeconds = nightSeconds;
+    }
+
+    /** 해커/위조범 응답 대기 시간 (초) */
+    public int getAbilitySeconds() {
+        return abilitySeconds;
+    }
+
+    public void setAbilitySeconds(int abilitySeconds) {
+        this.abilitySeconds = abilitySeconds;
+    }
+
+    /** 서버가 붙여둔 게임 상태 반환 (없으면 null) */
+    public Object getGameState() {
+        return gameState;
+    }
+
+    /** 게임 상태 붙이기 (방이 삭제되면 같이 사라짐) */
+    public void setGameState(Object gameState) {
+        this.gameState = gameState;
+    }
+
     /** 현재 인원 수 */
     public int getCurrentPlayers() {
         return players.size();
@@ -0,0 +1,248 @@
+package common;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * WireCodec - 텍스트/바이너리 프로토콜 인코딩 (서버/클라이언트 공용)
+ *
+ * 텍스트 (기존): "VOTE|nick|target\n" (UTF-8 한 줄)
+ *
+ * 바이너리 (핸드셰이크로 협상, 선택):
+ *   frame  := varint(본문 길이) body
+ *   body   := opcode(1바이트) [RAW면 명령 이름 field] varint(필드 수) field*
+ *   field  := varint(header) [UTF-8 바이트]
+ *             header 짝수 → 문자열, 길이 = header >>> 1
+ *             header 홀수 → 정수,  값   = header >>> 1  (방 번호 같은 작은 수는 1바이트)
+ *
+ * 핸드셰이크: 클라이언트가 텍스트로 "HELLO|BIN1" 전송
+ *   → 서버가 텍스트로 "HELLO_OK|BIN1" 응답 후 양방향 모두 바이너리로 전환
+ *   → HELLO를 안 보내는 예전 클라이언트는 계속 텍스트
+ */
+public final class WireCodec {
+
+    public static final String HELLO_BINARY = "HELLO|BIN1";
+    public static final String HELLO_OK_BINARY = "HELLO_OK|BIN1";
+    public static final String HELLO_OK_TEXT = "HELLO_OK|TEXT";
+
+    /** 한 메시지(텍스트 한 줄 / 바이너리 본문) 최대 크기 */
+    public static final int MAX_MESSAGE_BYTES = 64 * 1024;
+
+    private WireCodec() {}
+
+    /** 핸드셰이크 요청인지 (버전 무관) */
+    public static boolean isHello(String line) {
+        return line.startsWith("HELLO|");
+    }
+
+    /** 텍스트 한 줄 인코딩 */
+    public static byte[] encodeText(String line) {
+        return (line + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 🔵 "CMD|a|b" 형태의 메시지를 바이너리 프레임으로 인코딩 */
+    public static byte[] encodeFrame(String line) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(line.length() + 8);
+
+        int sep = line.indexOf('|');
+        Opcode op = Opcode.lookup(line, sep < 0 ? line.length() : sep);
+
+        body.write(op.code());
+        if (op == Opcode.RAW) writeField(body, sep < 0 ? line : line.substring(0, sep));
+
+        if (sep < 0) {
+            writeVarint(body, 0);
+        } else {
+            int count = 1;
+            for (int i = sep + 1; i < line.length(); i++) {
+                if (line.charAt(i) == '|') count++;
+            }
+            writeVarint(body, count);
+
+            int start = sep + 1;
+            while (true) {
+                int end = line.indexOf('|', start);
+                if (end < 0) end = line.length();
+                writeField(body, line.substring(start, end));
+                if (end == line.length()) break;
+                start = end + 1;
+            }
+        }
+
+        byte[] bodyBytes = body.toByteArray();
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(bodyBytes.length + 3);
+        writeVarint(frame, bodyBytes.length);
+        frame.write(bodyBytes, 0, bodyBytes.length);
+        return frame.toByteArray();
+    }
+
+    /** 바이너리 본문 → "CMD|a|b" 형태 문자열 */
+    public static String decodeBody(byte[] buf, int off, int len) {
+        Reader r = new Reader(buf, off, off + len);
+        Opcode op = Opcode.fromCode(r.readByte());
+        if (op == null) throw new IllegalArgumentException("알 수 없는 opcode");
+
+        StringBuilder sb = new StringBuilder(len + 16);
+        sb.append(op == Opcode.RAW ? r.readField() : op.name());
+
+        int count = r.readVarint();
+        for (int i = 0; i < count; i++) {
+            sb.append('|').append(r.readField());
+        }
+        return sb.toString();
+    }
+
+    private static void writeField(ByteArrayOutputStream out, String value) {
+        int n = smallInt(value);
+        if (n >= 0) {
+            writeVarint(out, (n << 1) | 1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length << 1);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    /** "0", "17" 처럼 앞에 0이 없는 작은 양의 정수면 값, 아니면 -1 (원문 그대로 복원 가능해야 함) */
+    private static int smallInt(String s) {
+        int len = s.length();
+        if (len == 0 || len > 9) return -1;
+        if (len > 1 && s.charAt(0) == '0') return -1;
+        int v = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /** 바이너리 본문 읽기 도우미 */
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] buf, int pos, int end) {
+            this.buf = buf;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        int readByte() {
+            if (pos >= end) throw new IllegalArgumentException("프레임이 잘림");
+            return buf[pos++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("varint가 너무 김");
+        }
+
+        String readField() {
+            int header = readVarint();
+            int v = header >>> 1;
+            if ((header & 1) == 1) return Integer.toString(v);
+            if (v > end - pos) throw new IllegalArgumentException("필드 길이 오류");
+            String s = new String(buf, pos, v, StandardCharsets.UTF_8);
+            pos += v;
+            return s;
+        }
+    }
+
+    /**
+     * 수신 바이트를 하나씩 넣어 메시지를 조립하는 디코더 (연결마다 하나)
+     * - 텍스트 모드: '\n'까지 한 줄
+     * - 바이너리 모드: 길이 varint + 본문
+     * - 핸드셰이크 직후 setBinary(true) 하면 바로 다음 바이트부터 바이너리로 해석
+     */
+    public static final class Decoder {
+
+        private boolean binary = false;
+        private byte[] buf = new byte[256];
+        private int len = 0;
+
+        // 바이너리: 프레임 길이 varint 읽는 중이면 bodyLen < 0
+        private int bodyLen = -1;
+        private int lenValue = 0;
+        private int lenShift = 0;
+
+        public boolean isBinary() {
+            return binary;
+        }
+
+        public void setBinary(boolean binary) {
+            this.binary = binary;
+        }
+
+        /**
+         * 🔵 바이트 하나 넣기
+         * @return 메시지가 완성되면 그 문자열, 아직이면 null
+         * @throws IllegalArgumentException 메시지가 너무 길거나 형식이 잘못됨 → 연결 종료 대상
+         */
+        public String feed(byte b) {
+            return binary ? feedBinary(b) : feedText(b);
+        }
+
+        private String feedText(byte b) {
+            if (b == '\n') {
+                int n = (len > 0 && buf[len - 1] == '\r') ? len - 1 : len;
+                String line = new String(buf, 0, n, StandardCharsets.UTF_8);
+                len = 0;
+                return line;
+            }
+            append(b);
+            return null;
+        }
+
+        private String feedBinary(byte b) {
+            if (bodyLen < 0) {
+                lenValue |= (b & 0x7F) << lenShift;
+                lenShift += 7;
+                if ((b & 0x80) != 0) {
+                    if (lenShift >= 28) throw new IllegalArgumentException("프레임 길이 오류");
+                    return null;
+                }
+                if (lenValue <= 0 || lenValue > MAX_MESSAGE_BYTES) {
+                    throw new IllegalArgumentException("프레임 길이 오류: " + lenValue);
+                }
+                bodyLen = lenValue;
+                lenValue = 0;
+                lenShift = 0;
+                return null;
+            }
+
+            append(b);
+            if (len < bodyLen) return null;
+
+            String msg = decodeBody(buf, 0, len);
+            len = 0;
+            bodyLen = -1;
+            return msg;
+        }
+
+        private void append(byte b) {
+            if (len == buf.length) {
+                if (buf.length >= MAX_MESSAGE_BYTES) {
+                    throw new IllegalArgumentException("메시지가 너무 김");
+                }
+                buf = Arrays.copyOf(buf, Math.min(buf.length * 2, MAX_MESSAGE_BYTES));
+            }
+            buf[len++] = b;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package server;
 
+import common.Opcode;
+import common.Role;
 import common.Room;
+import common.WireCodec;
 import java.io.*;
 import java.net.Socket;
 import java.util.*;
@@ -14,164 +17,379 @@ import java.util.*;
 public class ClientHandler implements Runnable {
 
     private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
-    private List<ClientHandler> clients;
-    private List<Room> rooms;
-
-    private Room currentRoom;
-    private String nickname;
-
-    // 게임 상태
-    private static Map<Room, Map<String, String>> roomVotes = new HashMap<>();
-    private static Map<Room, String> mafiaTargets = new HashMap<>();
-    private static Map<Room, String> doctorTargets = new HashMap<>();
-    private static Map<Room, Map<String, String>> roomRoles = new HashMap<>();
-    private static Map<Room, Set<String>> deadPlayers = new HashMap<>();
-    private static Set<Room> finishedRooms = Collections.synchronizedSet(new HashSet<>());
-    
-    // 특수 능력
-    private static Map<Room, Boolean> forgerUsed = new HashMap<>();
-    private static Map<Room, Boolean> hackerUsed = new HashMap<>();
-    private static Map<Room, Boolean> timeManagerUsed = new HashMap<>();
-    private static Map<Room, String> forgedRole = new HashMap<>();
-    private static Map<Room, Map<String, String>> hackerVoteChange = new HashMap<>();
-    
-    // 도둑 시스템
-    private static Map<Room, String> thiefStolenRole = new HashMap<>();
-    private static Map<Room, Boolean> thiefAbilityUsed = new HashMap<>();
-    
-    // 운명가 시스템
-    private static Map<Room, List<String>> destinyTargets = new HashMap<>();
-    
-    // 추적자 시스템
-    private static Map<Room, String> trackerTargets = new HashMap<>();
-    private static Map<Room, Map<String, String>> nightActions = new HashMap<>();
+    private InputStream in;
+    private OutputStream out;
+    // 블로킹 모드 송신 대기열 (writer 스레드가 비움) — 느린 클라이언트가 브로드캐스트를 막지 않도록
+    private OutboundQueue outbound;
+    private NioServer.NioConnection nioConn; // NIO 모드일 때만 사용
+    private Set<ClientHandler> clients;
+    private RoomRegistry rooms;
+
+    // 방 작업 스레드(RoomExecutor)도 읽으므로 volatile
+    private volatile Room currentRoom;
+    private volatile String nickname;
+
+    // 방 검색 페이지 크기 (기본 / 최대)
+    private static final int DEFAULT_ROOM_PAGE = 20;
+    private static final int MAX_ROOM_PAGE = 100;
+    // CREATE_ROOM에 최소 시간이 없을 때 쓰는 투표/밤 조기 종료 최소 시간 (초)
+    private static final int DEFAULT_MIN_PHASE_SECONDS = Integer.getInteger("mafia.phase.min", 0);
+
+    /** 이 연결이 지금 받는 화면 단위 알림 */
+    enum Subscription {
+        LOBBY, // 로비 화면 → 방 목록 변경을 받음
+        ROOM,  // 게임방 안 → 방 목록은 안 받음
+        NONE   // 방에서 나와 로비 구독(ROOM_SYNC / GET_ROOMS)을 기다리는 중
+    }
+
+    private volatile Subscription subscription = Subscription.LOBBY;
+    // ROOM_SYNC를 보낸 연결 → 방 목록을 델타로 받음
+    volatile boolean roomListDeltas = false;
+    // GET_ROOMS를 보낸 예전 클라이언트 → 바뀔 때마다 전체 ROOM_LIST
+    // (둘 다 아직 안 보낸 새 연결은 아무것도 안 받음 → 검색 화면이 첫 페이지를 받기 전에 ROOM_LIST로 덮이지 않음)
+    volatile boolean legacyRoomList = false;
+
+    // 수신 명령 뷰 (연결마다 하나를 재사용 → 메시지마다 split 배열을 만들지 않음)
+    private final Command command = new Command();
+
+    /** 명령 처리기 */
+    private interface CommandHandler {
+        void handle(ClientHandler handler, Command cmd);
+    }
+
+    /** 게임방 명령 처리기 (명령을 받을 때의 방을 넘겨받음 → 처리 중에 currentRoom이 바뀌어도 그 방만 다룸) */
+    private interface RoomCommandHandler {
+        void handle(ClientHandler handler, Room room, Command cmd);
+    }
+
+    // Opcode 코드 → 처리기 (startsWith 연쇄 비교 대신 표 한 번 조회)
+    private static final CommandHandler[] HANDLERS = new CommandHandler[256];
+    // 게임 상태를 읽고 쓰는 명령 → 연결 스레드에서 바로 실행하지 않고 방 작업 대기열(RoomExecutor)로 보냄
+    private static final RoomCommandHandler[] ROOM_HANDLERS = new RoomCommandHandler[256];
+
+    static {
+        HANDLERS[Opcode.GET_ROOMS.code()] = (h, c) -> h.sendRoomList();
+        HANDLERS[Opcode.CREATE_ROOM.code()] = ClientHandler::createRoom;
+        HANDLERS[Opcode.JOIN_ROOM.code()] = ClientHandler::handleJoinRoom;
+        onRoom(Opcode.CHAT, ClientHandler::handleChat);
+        onRoom(Opcode.MAFIA_CHAT, ClientHandler::handleMafiaChat);
+        HANDLERS[Opcode.GET_PLAYERS.code()] = ClientHandler::handleGetPlayers;
+        onRoom(Opcode.START_GAME, ClientHandler::handleStartGame);
+        onRoom(Opcode.VOTE, ClientHandler::handleVote);
+        onRoom(Opcode.NIGHT_ACTION, ClientHandler::handleNightAction);
+        onRoom(Opcode.HACKER_CHANGE, ClientHandler::handleHackerChange);
+        onRoom(Opcode.FORGER_CHANGE, ClientHandler::handleForgerChange);
+        onRoom(Opcode.TIME_MANAGER_CHOICE, ClientHandler::handleTimeManagerChoice);
+        onRoom(Opcode.TRACKER_TARGET, ClientHandler::handleTrackerTarget);
+        HANDLERS[Opcode.ROOM_SYNC.code()] = ClientHandler::handleRoomSync;
+        HANDLERS[Opcode.LEAVE_ROOM.code()] = (h, c) -> h.handleLeaveRoom();
+        HANDLERS[Opcode.ROOM_QUERY.code()] = ClientHandler::handleRoomQuery;
+        HANDLERS[Opcode.TIME_SYNC.code()] = ClientHandler::handleTimeSync;
+    }
+
+    private static void onRoom(Opcode op, RoomCommandHandler handler) {
+        ROOM_HANDLERS[op.code()] = handler;
+    }
 
-    public ClientHandler(Socket socket, List<ClientHandler> clients, List<Room> rooms) {
+    public ClientHandler(Socket socket, Set<ClientHandler> clients, RoomRegistry rooms) {
         this.socket = socket;
         this.clients = clients;
         this.rooms = rooms;
 
         try {
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+            in = socket.getInputStream();
+            out = new BufferedOutputStream(socket.getOutputStream());
+            outbound = new OutboundQueue();
+            Server.startTask(this::writeLoop);
         } catch (IOException e) {
-            System.out.println("스트림 생성 실패");
+            Log.error(Log.Category.NET, "스트림 생성 실패", e);
         }
+        setSubscription(Subscription.LOBBY);
+    }
+
+    /** NIO 모드: 소켓 입출력은 이벤트 루프가 담당하고 명령 처리만 맡음 */
+    public ClientHandler(NioServer.NioConnection conn, Set<ClientHandler> clients, RoomRegistry rooms) {
+        this.nioConn = conn;
+        this.clients = clients;
+        this.rooms = rooms;
+        setSubscription(Subscription.LOBBY);
     }
 
     @Override
     public void run() {
+        WireCodec.Decoder decoder = new WireCodec.Decoder();
+        byte[] buf = new byte[8 * 1024];
+        boolean negotiated = false;
+
         try {
-            String message;
-            while ((message = in.readLine()) != null) {
-                System.out.println("📨 [" + nickname + "] 받은 메시지: " + message);
-
-                if ("GET_ROOMS".equals(message)) {
-                    sendRoomList();
-                } else if (message.startsWith("CREATE_ROOM|")) {
-                    createRoom(message.substring("CREATE_ROOM|".length()));
-                } else if (message.startsWith("JOIN_ROOM|")) {
-                    handleJoinRoom(message);
-                } else if (message.startsWith("CHAT|")) {
-                    handleChat(message);
-                } else if (message.startsWith("MAFIA_CHAT|")) {
-                    handleMafiaChat(message);
-                } else if (message.startsWith("GET_PLAYERS|")) {
-                    handleGetPlayers(message);
-                } else if (message.startsWith("START_GAME|")) {
-                    handleStartGame(message);
-                } else if (message.startsWith("VOTE|")) {
-                    handleVote(message);
-                } else if (message.startsWith("NIGHT_ACTION|")) {
-                    handleNightAction(message);
-                } else if (message.startsWith("HACKER_CHANGE|")) {
-                    handleHackerChange(message);
-                } else if (message.startsWith("FORGER_CHANGE|")) {
-                    handleForgerChange(message);
-                } else if (message.startsWith("TIME_MANAGER_CHOICE|")) {
-                    handleTimeManagerChoice(message);
-                } else if (message.startsWith("TRACKER_TARGET|")) {
-                    handleTrackerTarget(message);
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    String message = decoder.feed(buf[i]);
+                    if (message == null) continue;
+
+                    // 첫 HELLO만 핸드셰이크로 처리 → 바로 다음 바이트부터 바이너리
+                    if (!negotiated && WireCodec.isHello(message)) {
+                        negotiated = true;
+                        decoder.setBinary(acceptHello(message));
+                        continue;
+                    }
+                    handleMessage(message);
                 }
             }
         } catch (IOException e) {
-            System.out.println("❗ 클라이언트 연결 종료됨");
+            Log.info(Log.Category.NET, "❗ 클라이언트 연결 종료됨: {}", nickname);
+        } catch (IllegalArgumentException e) {
+            Log.warn(Log.Category.PROTOCOL, "❗ 잘못된 메시지 → 연결 종료: {}", e.getMessage());
         } finally {
+            onDisconnect();
+        }
+    }
+
+    /**
+     * 🔵 프로토콜 핸드셰이크 응답 (블로킹/NIO 모드 공통)
+     * @return true면 이후 양방향 바이너리 프레임 사용
+     */
+    boolean acceptHello(String hello) {
+        boolean binary = WireCodec.HELLO_BINARY.equals(hello);
+        // 응답 자체는 텍스트 — writer가 이 줄을 쓴 직후부터 바이너리로 인코딩
+        send(binary ? WireCodec.HELLO_OK_BINARY : WireCodec.HELLO_OK_TEXT);
+        Log.debug(Log.Category.PROTOCOL, "🤝 프로토콜 협상: {}", binary ? "바이너리" : "텍스트");
+        return binary;
+    }
+
+    /** 🔵 수신한 한 줄 명령 처리 (블로킹/NIO 모드 공통) */
+    void handleMessage(String message) {
+        Log.debug(Log.Category.PROTOCOL, "📨 [{}] 받은 메시지: {}", nickname, message);
+
+        Command cmd = command.reset(message);
+        int code = cmd.op().code();
+
+        RoomCommandHandler roomHandler = ROOM_HANDLERS[code];
+        if (roomHandler != null) {
+            Room room = currentRoom;
+            if (room == null) return; // 방 밖에서 온 게임 명령
+            // 연결의 뷰는 다음 메시지에 덮어써지므로 원본 줄만 넘기고 작업 스레드의 재사용 뷰로 다시 나눔 (할당 없음)
+            RoomExecutor.execute(room, () -> {
+                if (currentRoom != room) return; // 그 사이 방에서 나감
+                roomHandler.handle(this, room, RoomExecutor.command(message));
+            });
+            return;
+        }
+
+        CommandHandler handler = HANDLERS[code];
+        if (handler != null) handler.handle(this, cmd);
+    }
+
+    /** 🔵 연결 종료 처리 (목록/방 멤버에서 제거 + 송신 큐 닫기 + 소켓 닫기) */
+    void onDisconnect() {
+        clients.remove(this);
+        Server.roomFeed.leaveLobby(this);
+        leaveCurrentRoom();
+        if (outbound != null) outbound.close();
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        if (socket != null) {
             try {
-                clients.remove(this);
                 socket.close();
             } catch (IOException ex) {}
         }
     }
 
+    /** 블로킹 모드 writer: 송신 큐에 쌓인 메시지를 모아서 한 번에 flush */
+    private void writeLoop() {
+        List<OutboundMessage> batch = new ArrayList<>();
+        boolean binary = false;
+        try {
+            while (outbound.drainTo(batch)) {
+                for (OutboundMessage msg : batch) {
+                    out.write(msg.bytes(binary));
+                    if (msg.switchesToBinary()) binary = true;
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException | InterruptedException e) {
+            // 쓰기 실패 → 소켓을 닫으면 읽기 루프가 끝나면서 onDisconnect 처리
+            closeSocket();
+        }
+    }
+
     private void sendRoomList() {
-        StringBuilder builder = new StringBuilder("ROOM_LIST|");
-        synchronized (rooms) {
-            for (Room r : rooms) {
-                String lockIcon = r.hasPassword() ? "🔒 " : "";
-                builder.append(lockIcon).append("#").append(r.getId()).append(" ")
-                       .append(r.getName()).append(" (").append(r.getPlayers().size())
-                       .append("/").append(r.getLimit()).append("),");
+        // 방에서 나온 예전 클라이언트가 목록을 다시 요청 → 로비 구독 재개
+        if (subscription == Subscription.NONE) setSubscription(Subscription.LOBBY);
+        legacyRoomList = true;
+        send(Server.roomListMessage());
+    }
+
+    /** 🔵 구독 상태 변경 (로비일 때만 방 목록 알림 대상) */
+    private void setSubscription(Subscription next) {
+        subscription = next;
+        if (next == Subscription.LOBBY) {
+            Server.roomFeed.enterLobby(this);
+        } else {
+            Server.roomFeed.leaveLobby(this);
+        }
+    }
+
+    /** ROOM_SYNC|마지막으로 받은 버전 → 델타 구독 + 밀린 변경(또는 스냅샷) 전송 */
+    private void handleRoomSync(Command cmd) {
+        long since = cmd.longField(1, 0);
+        subscription = Subscription.LOBBY;
+        Server.roomFeed.sync(this, since);
+    }
+
+    /**
+     * ROOM_QUERY|모드|빈자리만(0/1)|비밀번호없는방만(0/1)|정렬(NEWEST/OLDEST)|커서|페이지크기
+     * → ROOM_PAGE|버전|다음커서(없으면 0)|개수|id|이름|현재인원|최대인원|잠금|모드|... (방마다 6칸)
+     */
+    private void handleRoomQuery(Command cmd) {
+        String mode = cmd.isEmpty(1) || cmd.fieldEquals(1, "ALL") ? null : cmd.field(1).trim();
+        boolean freeOnly = cmd.fieldEquals(2, "1");
+        boolean noPassword = cmd.fieldEquals(3, "1");
+        boolean newestFirst = !cmd.fieldEquals(4, "OLDEST");
+        int cursor = cmd.intField(5, 0);
+        int pageSize = Math.max(1, Math.min(MAX_ROOM_PAGE, cmd.intField(6, DEFAULT_ROOM_PAGE)));
+
+        // 버전을 먼저 읽음 → 클라이언트가 이 버전부터 ROOM_SYNC하면 페이지 이후 변경을 빠짐없이 받음
+        long version = Server.roomFeed.version();
+        List<Room> page = new ArrayList<>(pageSize);
+        int next = rooms.query(mode, freeOnly, noPassword, newestFirst, cursor, pageSize, page);
+
+        StringBuilder sb = new StringBuilder("ROOM_PAGE|")
+                .append(version).append('|').append(next).append('|').append(page.size());
+        for (Room r : page) {
+            RoomListFeed.appendRoom(sb.append('|'), r);
+        }
+        send(sb.toString());
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * TIME_SYNC|클라이언트 시각 → TIME_SYNC|클라이언트 시각|서버 단조 시각(ms)
+     * 클라이언트는 왕복 시간의 절반을 빼서 서버 시계와의 차이를 구하고, 페이즈 마감 시각을 자기 시계로 바꿔 씀
+     */
+    private void handleTimeSync(Command cmd) {
+        send("TIME_SYNC|" + (cmd.isEmpty(1) ? "0" : cmd.field(1).trim()) + "|" + GameScheduler.now());
+    }
+
+    /** LEAVE_ROOM → 게임방에서 나감 (클라이언트가 로비로 돌아간 뒤 ROOM_SYNC로 다시 구독) */
+    private void handleLeaveRoom() {
+        leaveCurrentRoom();
+        if (subscription == Subscription.ROOM) setSubscription(Subscription.NONE);
+    }
+
+    /**
+     * 🔵 현재 방에서 나가기 (방 나가기 / 방 옮기기 / 연결 종료 공용)
+     * - 게임 진행 중이면 플레이어 목록은 그대로 둠 (역할/투표 처리가 닉네임을 씀)
+     * - 아무도 안 남은 대기실/끝난 방은 삭제
+     */
+    private void leaveCurrentRoom() {
+        Room room = currentRoom;
+        if (room == null) return;
+        Server.leaveRoom(room, nickname, this);
+        // 페이즈 작업은 예약할 때의 방을 들고 있으므로 여기서 바로 비워도 됨
+        currentRoom = null;
+
+        GameState game = GameState.of(room);
+        if (game != null && game.running()) {
+            if (!Server.membersOf(room).isEmpty()) {
+                // 이 사람의 응답을 기다리던 구간은 마감까지 기다리지 않고 바로 진행
+                int slot = game.slotOf(nickname);
+                if (slot != GameState.NONE) RoomExecutor.execute(room, () -> {
+                    game.abandonDecisions(slot);
+                    checkPhaseComplete(room, game); // 나간 사람의 투표/행동은 기다리지 않음
+                });
+                return;
             }
+            // 마지막 사람까지 나감 → 방을 지우기 전에 바로 타이머 취소 + 종료 표시
+            // (대기열에 넣으면 그 사이 타이머가 깨어나 지워진 방에 작업을 넣을 수 있음)
+            cleanupRoom(room);
+        }
+
+        room.removePlayer(nickname);
+
+        if (Server.membersOf(room).isEmpty()) {
+            room.setGameState(null); // 게임 상태도 방과 함께 버림
+            Server.removeRoom(room);
+        } else {
+            broadcastPlayerList(room);
+            Server.roomChanged(room);
         }
-        send(builder.toString());
     }
 
-    private void createRoom(String payload) {
+    private void createRoom(Command cmd) {
         String creatorNickname = null;
         String roomName;
         String mode = "CLASSIC";
         int limit = 10;
         String password = "";
 
-        String[] parts = payload.split("\\|", -1);
-        
-        if (parts.length >= 2) {
-            creatorNickname = parts[0].trim();
-            roomName = parts[1].trim();
-            if (parts.length >= 3 && !parts[2].isEmpty()) mode = parts[2].trim();
-            if (parts.length >= 4 && !parts[3].isEmpty()) {
-                try {
-                    limit = Integer.parseInt(parts[3].trim());
-                } catch (NumberFormatException e) {
-                    limit = 10;
-                }
-            }
-            if (parts.length >= 5 && !parts[4].isEmpty()) password = parts[4].trim();
+        int minPhaseSeconds = DEFAULT_MIN_PHASE_SECONDS;
+
+        int discussion = 10, vote = 10, night = 30, ability = 15;
+
+        // CREATE_ROOM|방장|방이름|모드|인원|비밀번호|최소시간|토론|투표|밤|능력 (초, 7번째부터 생략 가능)
+        // (예전 형식: CREATE_ROOM|방이름)
+        if (cmd.count() >= 3) {
+            creatorNickname = cmd.field(1).trim();
+            roomName = cmd.field(2).trim();
+            if (!cmd.isEmpty(3)) mode = cmd.field(3).trim();
+            limit = cmd.intField(4, limit);
+            if (!cmd.isEmpty(5)) password = cmd.field(5).trim();
+            minPhaseSeconds = cmd.intField(6, minPhaseSeconds);
+            discussion = cmd.intField(7, discussion);
+            vote = cmd.intField(8, vote);
+            night = cmd.intField(9, night);
+            ability = cmd.intField(10, ability);
         } else {
-            roomName = payload.trim();
+            roomName = cmd.count() >= 2 ? cmd.rest(1).trim() : "";
         }
 
         if (limit < 5) limit = 5;
         if (limit > 10) limit = 10;
 
-        Room newRoom = new Room(Server.roomIdCounter++, roomName);
+        // 정해진 모드만 받음 (아무 문자열이나 받으면 방 검색 색인 칸이 끝없이 늘어남)
+        String validMode = RoomRegistry.modeOf(mode);
+        if (validMode == null) {
+            send("ERROR|INVALID_MODE");
+            return;
+        }
+        mode = validMode;
+
+        Room newRoom = rooms.newRoom(roomName);
         newRoom.setMode(mode);
         newRoom.setLimit(limit);
         newRoom.setPassword(password);
+        newRoom.setMinPhaseSeconds(Math.min(minPhaseSeconds, 30));
+        newRoom.setDiscussionSeconds(clamp(discussion, 3, 300));
+        newRoom.setVoteSeconds(clamp(vote, 3, 120));
+        newRoom.setNightSeconds(clamp(night, 5, 300));
+        newRoom.setAbilitySeconds(clamp(ability, 3, 60));
         if (creatorNickname != null && !creatorNickname.isEmpty()) {
             newRoom.setHostNickname(creatorNickname);
         }
 
-        synchronized (rooms) {
-            rooms.add(newRoom);
-        }
+        rooms.add(newRoom);
+        RoomExecutor.open(newRoom);
 
-        System.out.println("✅ 방 생성: #" + newRoom.getId() + " " + newRoom.getName() 
-            + " [" + mode + "] | 비밀번호: " + (newRoom.hasPassword() ? "있음" : "없음"));
+        Log.info(Log.Category.ROOM, "✅ 방 생성: #{} {} [{}] | 비밀번호: {}",
+                newRoom.getId(), newRoom.getName(), mode, newRoom.hasPassword() ? "있음" : "없음");
 
-        Server.broadcastRoomList();
+        Server.roomChanged(newRoom);
     }
 
-    private void handleJoinRoom(String msg) {
-        String[] parts = msg.split("\\|", -1);
-        if (parts.length < 3) return;
+    private void handleJoinRoom(Command cmd) {
+        if (cmd.count() < 3) return;
 
-        this.nickname = parts[1].trim();
-        String roomId = parts[2].trim();
-        String inputPassword = parts.length >= 4 ? parts[3].trim() : "";
+        String nick = cmd.field(1).trim();
+        String roomId = cmd.field(2).trim();
+        String inputPassword = cmd.count() >= 4 ? cmd.field(3).trim() : "";
 
         Room target = Server.findRoomById(roomId);
         if (target == null) {
@@ -179,32 +397,61 @@ public class ClientHandler implements Runnable {
             return;
         }
 
+        // 같은 연결이 이미 앉아 있는 방에 같은 이름으로 다시 들어옴 (화면 재진입) → 자리 그대로
+        boolean rejoin = currentRoom == target && nick.equals(nickname);
+
+        // 진행 중인 게임에 아직 남아 있음 → 먼저 LEAVE_ROOM (그 게임의 내 자리와 응답 대기를 정리한 뒤 옮김)
+        if (!rejoin && isInRunningGame(currentRoom)) {
+            send("JOIN_FAIL|IN_GAME");
+            return;
+        }
+
         if (target.hasPassword() && !target.checkPassword(inputPassword)) {
             send("JOIN_FAIL|WRONG_PASSWORD");
             return;
         }
 
-        if (target.getPlayers().size() >= target.getLimit()) {
-            send("JOIN_FAIL|FULL");
+        // 닉네임 선점 (라우팅 표가 기준) → 같은 방에 같은 닉네임이면 개인 메시지가 엉뚱한 사람에게 감
+        if (!Server.joinRoom(target, nick, this)) {
+            send("JOIN_FAIL|DUPLICATE_NICKNAME");
+            return;
+        }
+
+        // 인원/게임 시작 확인과 추가를 한 번에 (동시에 들어와도 최대 인원을 넘지 않음) → 실패하면 선점한 닉네임 반납
+        if (!rejoin && !target.addPlayer(nick)) {
+            Server.leaveRoom(target, nick, this);
+            send(target.isInGame() ? "JOIN_FAIL|GAME_STARTED" : "JOIN_FAIL|FULL");
             return;
         }
 
-        target.getPlayers().add(nickname);
+        if (currentRoom != null && (currentRoom != target || !nick.equals(nickname))) {
+            leaveCurrentRoom();
+        }
+        this.nickname = nick;
         this.currentRoom = target;
+        setSubscription(Subscription.ROOM);
 
         String host = target.getHostNickname();
         if (host == null || host.isEmpty()) {
-            host = !target.getPlayers().isEmpty() ? target.getPlayers().get(0) : nickname;
+            host = target.getFirstPlayer();
+            if (host == null) host = nickname;
             target.setHostNickname(host);
         }
 
         send("JOIN_OK|" + target.getId() + "|" + target.getName() + "|" + host);
         broadcastPlayerList(target);
-        Server.broadcastRoomList();
+        Server.roomChanged(target);
+    }
+
+    /** 시작했고 아직 안 끝난 게임이 있는 방인지 */
+    private static boolean isInRunningGame(Room room) {
+        GameState game = GameState.of(room);
+        return game != null && game.running();
     }
 
-    private void handleGetPlayers(String msg) {
-        String roomId = msg.substring("GET_PLAYERS|".length());
+    private void handleGetPlayers(Command cmd) {
+        if (cmd.count() < 2) return;
+        String roomId = cmd.rest(1);
         Room target = Server.findRoomById(roomId);
         if (target == null) return;
 
@@ -213,130 +460,113 @@ public class ClientHandler implements Runnable {
         send(sb.toString());
     }
 
-    private void broadcastPlayerList(Room room) {
+    private static void broadcastPlayerList(Room room) {
         StringBuilder sb = new StringBuilder("PLAYER_LIST|");
         for (String p : room.getPlayers()) sb.append(p).append(",");
 
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom == room) ch.send(sb.toString());
-            }
+        OutboundMessage out = new OutboundMessage(sb.toString());
+        for (ClientHandler ch : Server.membersOf(room)) {
+            ch.send(out);
         }
     }
 
-    private boolean isDead(Room room, String nick) {
-        if (room == null || nick == null) return false;
-        Set<String> set = deadPlayers.get(room);
-        return set != null && set.contains(nick);
-    }
-
-    private void markDead(Room room, String nick) {
-        if (room == null || nick == null) return;
-        deadPlayers.computeIfAbsent(room, r -> new HashSet<>()).add(nick);
-        System.out.println("💀 사망 처리: " + nick);
+    private static void markDead(Room room, int slot) {
+        GameState game = GameState.of(room);
+        if (game == null || slot == GameState.NONE) return;
+        String nick = game.nameOf(slot);
+        game.markDead(slot);
+        Log.info(Log.Category.GAME, "💀 사망 처리: {}", nick);
         
         // 🎭 도둑 시스템: 첫 사망자의 직업 훔치기
-        if (thiefStolenRole.get(room) == null) {
-            String thiefNick = findPlayerByRole(room, "THIEF");
-            if (thiefNick != null && !isDead(room, thiefNick)) {
-                Map<String, String> roles = roomRoles.get(room);
-                String deadRole = roles.get(nick);
+        if (game.thiefStolenRole == null) {
+            int thief = game.findSlotByRole(Role.THIEF);
+            if (thief != GameState.NONE && !game.isDead(thief)) {
+                String thiefNick = game.nameOf(thief);
+                Role deadRole = game.roleOf(slot);
                 
                 // 도둑은 도둑 직업을 훔칠 수 없음
-                if (!"THIEF".equals(deadRole)) {
-                    thiefStolenRole.put(room, deadRole);
+                if (deadRole != null && deadRole != Role.THIEF) {
+                    game.thiefStolenRole = deadRole;
                     
                     // 그 직업이 이미 능력을 사용했는지 확인
-                    boolean alreadyUsed = checkIfAbilityUsed(room, nick, deadRole);
-                    thiefAbilityUsed.put(room, alreadyUsed);
+                    boolean alreadyUsed = checkIfAbilityUsed(game, deadRole);
+                    game.thiefAbilityUsed = alreadyUsed;
                     
                     sendToPlayer(room, thiefNick, "THIEF_STOLEN|" + deadRole + "|" + (alreadyUsed ? "USED" : "AVAILABLE"));
-                    System.out.println("🎭 도둑이 " + nick + "의 직업 [" + deadRole + "] 훔침");
+                    Log.info(Log.Category.GAME, "🎭 도둑이 {}의 직업 [{}] 훔침", nick, deadRole);
                 }
             }
         }
     }
 
-    private boolean checkIfAbilityUsed(Room room, String nick, String role) {
-        // 각 직업별로 능력 사용 여부 확인
+    private static boolean checkIfAbilityUsed(GameState game, Role role) {
+        // 여러 번 쓰는 능력은 항상 false
+        if (!role.isOneShot()) return false;
         switch (role) {
-            case "FORGER":
-                return forgerUsed.getOrDefault(room, false);
-            case "HACKER":
-                return hackerUsed.getOrDefault(room, false);
-            case "TIME_MANAGER":
-                return timeManagerUsed.getOrDefault(room, false);
-            // 다른 직업들은 여러 번 사용 가능하므로 false
+            case FORGER:
+                return game.forgerUsed;
+            case HACKER:
+                return game.hackerUsed;
+            case TIME_MANAGER:
+                return game.timeManagerUsed;
             default:
                 return false;
         }
     }
 
-    private void handleChat(String msg) {
-        if (currentRoom == null) return;
-        String[] p = msg.split("\\|", 3);
-        if (p.length < 3) return;
-
-        String sender = p[1];
-        String text = p[2];
-        boolean senderDead = isDead(currentRoom, sender);
-
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom != currentRoom) continue;
-                if (senderDead) {
-                    if (isDead(ch.currentRoom, ch.nickname)) {
-                        ch.send("GHOST_CHAT|" + sender + "|" + text);
-                    }
-                } else {
-                    if (!isDead(ch.currentRoom, ch.nickname)) {
-                        ch.send(msg);
-                    }
-                }
+    private void handleChat(Room room, Command cmd) {
+        if (cmd.count() < 3) return;
+
+        String sender = cmd.field(1);
+        GameState game = GameState.of(room);
+        boolean senderDead = game != null && game.isDead(sender);
+
+        // 죽은 사람 채팅은 고스트 채팅으로만 전달 — 어느 쪽이든 메시지는 한 번만 인코딩
+        OutboundMessage out = new OutboundMessage(senderDead
+                ? "GHOST_CHAT|" + sender + "|" + cmd.rest(2)
+                : cmd.line());
+
+        for (ClientHandler ch : Server.membersOf(room)) {
+            if ((game != null && game.isDead(ch.nickname)) == senderDead) {
+                ch.send(out);
             }
         }
     }
 
-    private void handleMafiaChat(String msg) {
-        if (currentRoom == null) return;
-        String[] p = msg.split("\\|", 3);
-        if (p.length < 3) return;
+    private void handleMafiaChat(Room room, Command cmd) {
+        if (cmd.count() < 3) return;
 
-        String sender = p[1];
-        String text = p[2];
+        String sender = cmd.field(1);
+        String text = cmd.rest(2);
 
-        Map<String, String> roles = roomRoles.get(currentRoom);
-        if (roles == null) return;
-        
-        String senderRole = roles.get(sender);
-        if (!"MAFIA".equals(senderRole) && !"FORGER".equals(senderRole) && !"HACKER".equals(senderRole)) {
+        GameState game = GameState.of(room);
+        if (game == null) return;
+        Role senderRole = game.roleOf(sender);
+        if (senderRole == null || !senderRole.isMafiaTeam()) {
             return;
         }
-        if (isDead(currentRoom, sender)) return;
+        if (game.isDead(sender)) return;
 
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom != currentRoom) continue;
-                String targetRole = roles.get(ch.nickname);
-                if (("MAFIA".equals(targetRole) || "FORGER".equals(targetRole) || "HACKER".equals(targetRole)) 
-                    && !isDead(ch.currentRoom, ch.nickname)) {
-                    ch.send("MAFIA_CHAT|" + sender + "|" + text);
-                }
+        OutboundMessage out = new OutboundMessage("MAFIA_CHAT|" + sender + "|" + text);
+        for (ClientHandler ch : Server.membersOf(room)) {
+            Role targetRole = game.roleOf(ch.nickname);
+            if (targetRole != null && targetRole.isMafiaTeam() && !game.isDead(ch.nickname)) {
+                ch.send(out);
             }
         }
     }
 
-    private void handleStartGame(String msg) {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
+    private void handleStartGame(Room room, Command cmd) {
+        if (isFinished(room)) return;
 
         String requester = null;
-        String[] parts = msg.split("\\|");
-        if (parts.length >= 2) requester = parts[1].trim();
+        if (!cmd.isEmpty(1)) requester = cmd.field(1).trim();
 
-        String host = currentRoom.getHostNickname();
+        String host = room.getHostNickname();
         if (host == null || host.isEmpty()) {
-            host = !currentRoom.getPlayers().isEmpty() ? currentRoom.getPlayers().get(0) : "";
-            currentRoom.setHostNickname(host);
+            host = room.getFirstPlayer();
+            if (host == null) host = "";
+            room.setHostNickname(host);
         }
 
         if (host != null && requester != null && !host.equals(requester)) {
@@ -344,69 +574,68 @@ public class ClientHandler implements Runnable {
             return;
         }
 
-        System.out.println("🎮 게임 시작!");
+        Log.info(Log.Category.GAME, "🎮 게임 시작! 방 #{}", room.getId());
 
-        Map<String, String> roles = assignRoles(currentRoom);
-        roomRoles.put(currentRoom, roles);
-        
-        // 능력 초기화
-        forgerUsed.put(currentRoom, false);
-        hackerUsed.put(currentRoom, false);
-        timeManagerUsed.put(currentRoom, false);
-        thiefStolenRole.remove(currentRoom);
-        thiefAbilityUsed.remove(currentRoom);
+        // 입장을 막고 그 순간의 플레이어 목록 순서대로 번호를 붙임 (역할 배정도 같은 목록으로)
+        List<String> order = room.beginGame();
+        if (order.size() > GameState.MAX_PLAYERS) {
+            room.cancelGame();
+            send("ERROR|TOO_MANY_PLAYERS");
+            return;
+        }
+        Map<String, Role> roles = assignRoles(room, order);
+        // 게임마다 새 상태 (능력 사용 여부 등은 모두 초기값)
+        GameState game = new GameState(order, roles);
+        room.setGameState(game);
+        GameScheduler.begin(room);
+        Server.roomChanged(room); // 시작한 방은 빈자리 검색에서 빠짐 + 로비 델타
         
         // 운명가에게 3명 알려주기
-        String destinyNick = findPlayerByRole(currentRoom, "DESTINY");
+        String destinyNick = game.findPlayerByRole(Role.DESTINY);
         if (destinyNick != null) {
-            List<String> targets = selectDestinyTargets(currentRoom, destinyNick);
-            destinyTargets.put(currentRoom, targets);
+            game.destinyTargets = selectDestinyTargets(room, game, destinyNick);
         }
 
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom == currentRoom) {
-                    String playerNickname = ch.nickname;
-                    String role = roles.get(playerNickname);
-                    ch.send("ROLE|" + playerNickname + "|" + role);
-                }
-            }
+        for (ClientHandler ch : Server.membersOf(room)) {
+            String playerNickname = ch.nickname;
+            Role role = roles.get(playerNickname);
+            ch.send("ROLE|" + playerNickname + "|" + role);
         }
 
-        startDayPhase();
+        startDayPhase(room);
     }
 
     /** 🎲 역할 배정 시스템 */
-    private Map<String, String> assignRoles(Room room) {
-        List<String> players = new ArrayList<>(room.getPlayers());
+    private static Map<String, Role> assignRoles(Room room, List<String> order) {
+        List<String> players = new ArrayList<>(order);
         int count = players.size();
         String mode = room.getMode();
 
-        Map<String, String> assigned = new HashMap<>();
+        Map<String, Role> assigned = new HashMap<>();
 
         // CLASSIC 모드: 기본 직업만
         if ("CLASSIC".equals(mode)) {
             int mafiaCount = (count <= 6) ? 1 : (count <= 8) ? 2 : 3;
-            List<String> roles = new ArrayList<>();
+            List<Role> roles = new ArrayList<>();
             
-            for (int i = 0; i < mafiaCount; i++) roles.add("MAFIA");
-            roles.add("DOCTOR");
-            roles.add("POLICE");
-            while (roles.size() < count) roles.add("CIVILIAN");
+            for (int i = 0; i < mafiaCount; i++) roles.add(Role.MAFIA);
+            roles.add(Role.DOCTOR);
+            roles.add(Role.POLICE);
+            while (roles.size() < count) roles.add(Role.CIVILIAN);
             
             Collections.shuffle(roles);
             for (int i = 0; i < players.size(); i++) {
                 assigned.put(players.get(i), roles.get(i));
             }
             
-            System.out.println("🧩 역할 배정 [CLASSIC]: " + assigned);
+            Log.info(Log.Category.GAME, "🧩 역할 배정 [CLASSIC]: {}", String.valueOf(assigned));
             return assigned;
         }
 
         // SPECIAL 모드: 8~10명만 가능
         if (count < 8) {
             // 8명 미만이면 CLASSIC 로직 사용
-            return assignRoles(room);
+            return assignRoles(room, order);
         }
 
         // 팀 구성
@@ -427,18 +656,18 @@ public class ClientHandler implements Runnable {
         }
 
         // 고정 직업
-        List<String> mafiaTeam = new ArrayList<>(Arrays.asList("MAFIA"));
-        List<String> neutral = new ArrayList<>();
-        List<String> civilTeam = new ArrayList<>(Arrays.asList("POLICE", "DOCTOR", "CIVILIAN"));
+        List<Role> mafiaTeam = new ArrayList<>(Arrays.asList(Role.MAFIA));
+        List<Role> neutral = new ArrayList<>();
+        List<Role> civilTeam = new ArrayList<>(Arrays.asList(Role.POLICE, Role.DOCTOR, Role.CIVILIAN));
 
         // 특수 직업 풀
-        List<String> specialMafia = Arrays.asList("FORGER", "HACKER");
-        List<String> specialNeutral = Arrays.asList("JESTER", "THIEF");
-        List<String> specialCivil = Arrays.asList("TIME_MANAGER", "DESTINY", "TRACKER");
+        List<Role> specialMafia = Arrays.asList(Role.FORGER, Role.HACKER);
+        List<Role> specialNeutral = Arrays.asList(Role.JESTER, Role.THIEF);
+        List<Role> specialCivil = Arrays.asList(Role.TIME_MANAGER, Role.DESTINY, Role.TRACKER);
 
         // 마피아팀 채우기
         Collections.shuffle(specialMafia);
-        for (String role : specialMafia) {
+        for (Role role : specialMafia) {
             if (mafiaTeam.size() < mafiaTeamCount) {
                 mafiaTeam.add(role);
             }
@@ -446,7 +675,7 @@ public class ClientHandler implements Runnable {
 
         // 중립 채우기
         Collections.shuffle(specialNeutral);
-        for (String role : specialNeutral) {
+        for (Role role : specialNeutral) {
             if (neutral.size() < neutralCount) {
                 neutral.add(role);
             }
@@ -454,17 +683,17 @@ public class ClientHandler implements Runnable {
 
         // 시민팀 채우기
         Collections.shuffle(specialCivil);
-        for (String role : specialCivil) {
+        for (Role role : specialCivil) {
             if (civilTeam.size() < civilTeamCount) {
                 civilTeam.add(role);
             }
         }
         while (civilTeam.size() < civilTeamCount) {
-            civilTeam.add("CIVILIAN");
+            civilTeam.add(Role.CIVILIAN);
         }
 
         // 모든 역할 합치기
-        List<String> allRoles = new ArrayList<>();
+        List<Role> allRoles = new ArrayList<>();
         allRoles.addAll(mafiaTeam);
         allRoles.addAll(neutral);
         allRoles.addAll(civilTeam);
@@ -476,13 +705,12 @@ public class ClientHandler implements Runnable {
             assigned.put(players.get(i), allRoles.get(i));
         }
 
-        System.out.println("🧩 역할 배정 [SPECIAL " + count + "명]: " + assigned);
+        Log.info(Log.Category.GAME, "🧩 역할 배정 [SPECIAL {}명]: {}", count, String.valueOf(assigned));
         return assigned;
     }
 
     /** 🔮 운명가: 3명 선택 (1명은 반드시 마피아) */
-    private List<String> selectDestinyTargets(Room room, String destinyNick) {
-        Map<String, String> roles = roomRoles.get(room);
+    private static List<String> selectDestinyTargets(Room room, GameState game, String destinyNick) {
         List<String> players = new ArrayList<>(room.getPlayers());
         players.remove(destinyNick);
 
@@ -490,8 +718,8 @@ public class ClientHandler implements Runnable {
         List<String> others = new ArrayList<>();
 
         for (String p : players) {
-            String role = roles.get(p);
-            if ("MAFIA".equals(role) || "FORGER".equals(role) || "HACKER".equals(role)) {
+            Role role = game.roleOf(p);
+            if (role != null && role.isMafiaTeam()) {
                 mafiasTeam.add(p);
             } else {
                 others.add(p);
@@ -531,465 +759,526 @@ public class ClientHandler implements Runnable {
         }
         sendToPlayer(room, destinyNick, targets.toString());
 
-        System.out.println("🔮 운명가 " + destinyNick + "에게 제시된 이름: " + selected);
+        Log.info(Log.Category.GAME, "🔮 운명가 {}에게 제시된 이름: {}", destinyNick, selected);
         return selected;
     }
 
-    private String findPlayerByRole(Room room, String role) {
-        Map<String, String> roles = roomRoles.get(room);
-        if (roles == null) return null;
-        
-        for (Map.Entry<String, String> entry : roles.entrySet()) {
-            if (role.equals(entry.getValue())) {
-                return entry.getKey();
-            }
-        }
-        return null;
+    private static void sendToPlayer(Room room, String nickname, String msg) {
+        ClientHandler ch = Server.memberByNickname(room, nickname);
+        if (ch != null) ch.send(msg);
     }
 
-    private void sendToPlayer(Room room, String nickname, String msg) {
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom == room && nickname.equals(ch.nickname)) {
-                    ch.send(msg);
-                    return;
-                }
-            }
+    private static void broadcastToRoom(Room room, String msg) {
+        OutboundMessage out = new OutboundMessage(msg);
+        for (ClientHandler ch : Server.membersOf(room)) {
+            ch.send(out);
         }
     }
 
-    private void broadcastToRoom(String msg) {
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                if (ch.currentRoom == currentRoom) {
-                    ch.send(msg);
-                }
-            }
-        }
+    public void send(String msg) {
+        send(new OutboundMessage(msg));
     }
 
-    public void send(String msg) {
-        out.println(msg);
+    /** 🔵 미리 인코딩된(공유) 메시지 전송 — 브로드캐스트는 메시지 하나를 모든 수신자가 공유 */
+    void send(OutboundMessage msg) {
+        if (nioConn != null) {
+            nioConn.send(msg);
+            return;
+        }
+        if (outbound == null) return;
+
+        if (!outbound.offer(msg)) {
+            // 송신 큐가 넘침 → 느린 클라이언트 연결 끊기
+            Log.warn(Log.Category.NET, "🐢 느린 클라이언트 연결 끊음: {}", nickname);
+            closeSocket();
+        }
     }
     
     // 다음 파트에서 계속 (투표, 밤, 특수능력 처리)
     // ClientHandler.java 계속 (Part 2)
 
-    /** 낮 페이즈 시작 */
-    private void startDayPhase() {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
+    /*
+     * 페이즈 진행 메서드는 모두 static + 진행할 방을 인자로 받음
+     * → 예약된 작업이 그 작업을 시작한 연결의 currentRoom(나가거나 옮기면 바뀜)을 읽지 않고 예약할 때의 방만 다룸
+     */
 
-        broadcastToRoom("DAY_START|discussion");
+    /** 낮 페이즈 시작 */
+    private static void startDayPhase(Room room) {
+        GameState game = GameState.of(room);
+        if (game == null || game.finished) return;
 
-        new Thread(() -> {
-            try {
-                Thread.sleep(10000); // 낮 토론 10초
-            } catch (Exception ignored) {}
+        // 페이즈 시작 메시지에 서버 단조 시계 기준 마감 시각을 실음 (클라이언트 카운트다운 기준)
+        long discussionMs = room.getDiscussionSeconds() * 1000L;
+        broadcastToRoom(room, "DAY_START|discussion|" + (GameScheduler.now() + discussionMs));
 
-            if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
+        GameScheduler.schedule(room, discussionMs, () -> { // 낮 토론
+            if (game.finished) return;
 
-            broadcastToRoom("VOTE_START");
+            game.clearVotes();
+            game.votingOpen = true;
+            long voteMs = room.getVoteSeconds() * 1000L;
+            broadcastToRoom(room, "VOTE_START|" + (GameScheduler.now() + voteMs));
             
             // ⏰ 시간 관리자에게 선택권 주기
-            String timeManagerNick = findPlayerByRole(currentRoom, "TIME_MANAGER");
-            if (timeManagerNick != null && !isDead(currentRoom, timeManagerNick) 
-                && !timeManagerUsed.getOrDefault(currentRoom, false)) {
-                sendToPlayer(currentRoom, timeManagerNick, "TIME_MANAGER_PROMPT|밤을 건너뛰고 다음 낮으로 이동하시겠습니까?");
+            // 응답은 투표 마감까지만 받음 (이어서 할 일 없이 응답 여부만 추적)
+            int timeManager = game.findSlotByRole(Role.TIME_MANAGER);
+            if (timeManager != GameState.NONE && !game.isDead(timeManager) && !game.timeManagerUsed
+                    && isConnected(room, game.nameOf(timeManager))) {
+                game.timeDecision = new DecisionWindow(Role.TIME_MANAGER, timeManager, null);
+                sendToPlayer(room, game.nameOf(timeManager), "TIME_MANAGER_PROMPT|밤을 건너뛰고 다음 낮으로 이동하시겠습니까?");
             }
 
-            try {
-                Thread.sleep(10000); // 투표 시간 10초
-            } catch (Exception ignored) {}
-
-            if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
-
-            finishVotePhase();
-        }).start();
+            schedulePhaseEnd(room, game, voteMs, () -> finishVotePhase(room)); // 투표 시간 (모두 투표하면 앞당김)
+        });
     }
 
     /** 투표 처리 */
-    private void handleVote(String msg) {
-        String[] p = msg.split("\\|");
-        if (p.length < 3 || currentRoom == null) return;
+    private void handleVote(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (cmd.count() < 3 || cmd.isEmpty(2) || game == null) return;
 
-        String voter = p[1];
-        String target = p[2];
+        String voter = cmd.field(1);
+        String target = cmd.field(2);
 
-        if (isDead(currentRoom, voter)) return;
+        // 투표 시간에 살아 있는 참가자가 참가자에게 한 투표만 인정
+        int v = game.slotOf(voter);
+        int t = game.slotOf(target);
+        if (!game.votingOpen || v == GameState.NONE || t == GameState.NONE || game.isDead(v)) return;
 
-        synchronized (roomVotes) {
-            Map<String, String> voteMap = roomVotes.computeIfAbsent(currentRoom, r -> new HashMap<>());
-            voteMap.put(voter, target);
-        }
+        game.votes[v] = t;
 
-        System.out.println("🗳 투표: " + voter + " → " + target);
+        Log.info(Log.Category.GAME, "🗳 투표: {} → {}", voter, target);
+        checkPhaseComplete(room, game);
     }
 
     /** 투표 종료 및 결과 처리 */
-    private void finishVotePhase() {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
-
-        Map<String, String> voteMap;
-        synchronized (roomVotes) {
-            voteMap = new HashMap<>(roomVotes.getOrDefault(currentRoom, new HashMap<>()));
+    private static void finishVotePhase(Room room) {
+        GameState game = GameState.of(room);
+        if (game == null || game.finished) return;
+
+        // 투표 마감 (이후 들어오는 투표/시간 관리자 응답은 무시)
+        game.votingOpen = false;
+        if (game.timeDecision != null) {
+            game.timeDecision.close();
+            game.timeDecision = null;
         }
 
-        if (voteMap == null || voteMap.isEmpty()) {
-            broadcastToRoom("VOTE_RESULT|NONE|NONE");
-            synchronized (roomVotes) {
-                roomVotes.remove(currentRoom);
-            }
-            if (checkGameOver()) return;
-            
-            // 시간 관리자 능력 확인
-            if (checkTimeManagerSkipNight()) {
-                startDayPhase();
-            } else {
-                startNightPhase();
-            }
+        if (!game.hasVotes()) {
+            broadcastToRoom(room, "VOTE_RESULT|NONE|NONE");
+            if (checkGameOver(room)) return;
+
+            startNextPhase(room, game);
             return;
         }
 
         // 🔧 1단계: 해커에게 투표 결과 먼저 전송
-        Map<String, String> roles = roomRoles.get(currentRoom);
-        String hackerNick = findPlayerByRole(currentRoom, "HACKER");
+        int hacker = game.findSlotByRole(Role.HACKER);
         
-        if (hackerNick != null && !isDead(currentRoom, hackerNick) 
-            && !hackerUsed.getOrDefault(currentRoom, false)) {
+        if (hacker != GameState.NONE && !game.isDead(hacker) && !game.hackerUsed
+                && isConnected(room, game.nameOf(hacker))) {
+            String hackerNick = game.nameOf(hacker);
             
             StringBuilder voteInfo = new StringBuilder("HACKER_VOTE_INFO|");
-            for (Map.Entry<String, String> entry : voteMap.entrySet()) {
-                voteInfo.append(entry.getKey()).append(":").append(entry.getValue()).append(",");
+            for (int v = 0; v < game.size(); v++) {
+                int t = game.votes[v];
+                if (t == GameState.NONE) continue;
+                voteInfo.append(game.nameOf(v)).append(":").append(game.nameOf(t)).append(",");
             }
             
-            sendToPlayer(currentRoom, hackerNick, voteInfo.toString());
-            sendToPlayer(currentRoom, hackerNick, "HACKER_PROMPT|해커님, 15초 안에 한 사람의 투표를 조작할 수 있습니다.");
-            
-            try {
-                Thread.sleep(15000);
-            } catch (InterruptedException e) {}
-            
-            // 해커 투표 조작 확인
-            Map<String, String> change = hackerVoteChange.get(currentRoom);
-            if (change != null) {
-                String voter = change.get("voter");
-                String newTarget = change.get("target");
-                voteMap.put(voter, newTarget);
-                hackerUsed.put(currentRoom, true);
-                System.out.println("🔧 해커가 " + voter + "의 투표를 " + newTarget + "으로 변경");
-            }
-            hackerVoteChange.remove(currentRoom);
+            sendToPlayer(room, hackerNick, voteInfo.toString());
+            int seconds = room.getAbilitySeconds();
+            sendToPlayer(room, hackerNick, "HACKER_PROMPT|해커님, " + seconds + "초 안에 한 사람의 투표를 조작할 수 있습니다.");
+
+            // 해커가 응답하면 바로, 아니면 마감 뒤 조작 확인 후 집계
+            openDecision(room, game, Role.HACKER, hacker, seconds * 1000L, () -> {
+                if (game.finished) return;
+
+                if (game.hackerVoter != GameState.NONE) {
+                    game.votes[game.hackerVoter] = game.hackerTarget;
+                    game.hackerUsed = true;
+                    Log.info(Log.Category.GAME, "🔧 해커가 {}의 투표를 {}으로 변경",
+                            game.nameOf(game.hackerVoter), game.nameOf(game.hackerTarget));
+                }
+                game.hackerVoter = GameState.NONE;
+                game.hackerTarget = GameState.NONE;
+                resolveVotes(room, game);
+            });
+            return;
         }
 
-        // 투표 집계
-        Map<String, Integer> counter = new HashMap<>();
-        for (String target : voteMap.values()) {
-            counter.put(target, counter.getOrDefault(target, 0) + 1);
-        }
+        resolveVotes(room, game);
+    }
 
-        String dead = null;
-        int max = 0;
+    /** 투표 집계 (해커 조작 반영 후) — 최다 득표가 동점이면 아무도 처형하지 않음 */
+    private static void resolveVotes(Room room, GameState game) {
+        int executed = game.tallyVotes();
+        game.clearVotes();
 
-        for (Map.Entry<String, Integer> entry : counter.entrySet()) {
-            String user = entry.getKey();
-            int c = entry.getValue();
-            if (c > max) {
-                max = c;
-                dead = user;
-            }
-        }
+        if (executed == GameState.NONE) {
+            broadcastToRoom(room, "VOTE_RESULT|NONE|NONE");
+            if (checkGameOver(room)) return;
 
-        if (dead == null) {
-            broadcastToRoom("VOTE_RESULT|NONE|NONE");
-            synchronized (roomVotes) {
-                roomVotes.remove(currentRoom);
-            }
-            if (checkGameOver()) return;
-            
-            if (checkTimeManagerSkipNight()) {
-                startDayPhase();
-            } else {
-                startNightPhase();
-            }
+            startNextPhase(room, game);
             return;
         }
 
+        String dead = game.nameOf(executed);
+
         // 🎭 광대 승리 체크
-        String deadRole = roles.get(dead);
-        if ("JESTER".equals(deadRole)) {
-            broadcastToRoom("JESTER_WIN|" + dead);
-            finishedRooms.add(currentRoom);
-            cleanupRoom(currentRoom);
-            System.out.println("🎭 광대 " + dead + " 승리!");
+        Role deadRole = game.roleOf(executed);
+        if (deadRole == Role.JESTER) {
+            broadcastToRoom(room, "JESTER_WIN|" + dead);
+            game.finished = true;
+            Server.roomChanged(room); // 끝난 방은 로비 목록에서 빠짐
+            cleanupRoom(room);
+            Log.info(Log.Category.GAME, "🎭 광대 {} 승리!", dead);
             return;
         }
 
         // 🎭 2단계: 위조범에게 사망자 직업 전송
-        String forgerNick = findPlayerByRole(currentRoom, "FORGER");
+        int forger = game.findSlotByRole(Role.FORGER);
         
-        if (forgerNick != null && !isDead(currentRoom, forgerNick) 
-            && !forgerUsed.getOrDefault(currentRoom, false)) {
+        if (forger != GameState.NONE && !game.isDead(forger) && !game.forgerUsed
+                && isConnected(room, game.nameOf(forger))) {
+            String forgerNick = game.nameOf(forger);
             
-            sendToPlayer(currentRoom, forgerNick, "FORGER_PROMPT|" + dead + "|" + deadRole);
-            
-            try {
-                Thread.sleep(15000);
-            } catch (InterruptedException e) {}
-            
-            // 위조범이 직업 변경했는지 확인
-            String forged = forgedRole.get(currentRoom);
-            if (forged != null && !forged.isEmpty()) {
-                deadRole = forged;
-                forgerUsed.put(currentRoom, true);
-                System.out.println("🎭 위조범이 직업을 [" + forged + "]로 변경");
-            }
-            forgedRole.remove(currentRoom);
+            sendToPlayer(room, forgerNick, "FORGER_PROMPT|" + dead + "|" + deadRole);
+
+            // 위조범이 응답하면 바로, 아니면 마감 뒤 직업 변경 확인 후 공개
+            String realRole = String.valueOf(deadRole);
+            openDecision(room, game, Role.FORGER, forger, room.getAbilitySeconds() * 1000L, () -> {
+                if (game.finished) return;
+
+                String shownRole = realRole;
+                String forged = game.forgedRole;
+                if (forged != null && !forged.isEmpty()) {
+                    shownRole = forged;
+                    game.forgerUsed = true;
+                    Log.info(Log.Category.GAME, "🎭 위조범이 직업을 [{}]로 변경", forged);
+                }
+                game.forgedRole = null;
+                revealVoteResult(room, game, executed, shownRole);
+            });
+            return;
         }
 
+        revealVoteResult(room, game, executed, String.valueOf(deadRole));
+    }
+
+    /** 투표 사망자 처리 + 전체 공개 → 다음 페이즈 */
+    private static void revealVoteResult(Room room, GameState game, int executed, String deadRole) {
         // 사망 처리
-        markDead(currentRoom, dead);
+        markDead(room, executed);
         
         // 3단계: 전체에게 결과 공개
-        broadcastToRoom("VOTE_RESULT|" + dead + "|" + deadRole);
-        broadcastPlayerList(currentRoom);
-
-        synchronized (roomVotes) {
-            roomVotes.remove(currentRoom);
-        }
+        broadcastToRoom(room, "VOTE_RESULT|" + game.nameOf(executed) + "|" + deadRole);
+        broadcastPlayerList(room);
 
-        if (checkGameOver()) return;
+        if (checkGameOver(room)) return;
         
-        mafiaTargets.remove(currentRoom);
-        doctorTargets.remove(currentRoom);
+        game.mafiaTarget = GameState.NONE;
+        game.doctorTarget = GameState.NONE;
+
+        startNextPhase(room, game);
+    }
 
-        // 시간 관리자 능력 확인
-        if (checkTimeManagerSkipNight()) {
-            startDayPhase();
+    /**
+     * ⏩ 투표/밤 마감 작업 예약 — 기본은 delayMs 뒤
+     * 필요한 사람이 모두 행동하면 checkPhaseComplete가 방의 최소 시간까지만 기다리도록 앞당김
+     */
+    private static void schedulePhaseEnd(Room room, GameState game, long delayMs, Runnable end) {
+        Runnable once = () -> {
+            game.phaseEnd = null;
+            end.run();
+        };
+        game.phaseEnd = once;
+        game.phaseStartNanos = System.nanoTime();
+        GameScheduler.schedule(room, delayMs, once);
+    }
+
+    /** ⏩ 투표/밤에 기다리던 사람이 모두 행동했으면 마감 작업을 앞당김 (같은 타이머를 다시 예약) */
+    private static void checkPhaseComplete(Room room, GameState game) {
+        Runnable end = game.phaseEnd;
+        if (end == null || game.finished) return;
+
+        long connected = connectedMask(room, game);
+        boolean done = game.votingOpen ? game.allVoted(connected) : game.allNightActed(connected);
+        if (!done) return;
+
+        game.phaseEnd = null; // 한 번만 앞당김
+        long elapsedMs = (System.nanoTime() - game.phaseStartNanos) / 1_000_000;
+        long waitMs = Math.max(0, room.getMinPhaseSeconds() * 1000L - elapsedMs);
+        GameScheduler.schedule(room, waitMs, end);
+        // 앞당긴 마감 시각을 알려줌 → 화면 카운트다운이 원래 마감까지 돌지 않음
+        broadcastToRoom(room, "PHASE_DEADLINE|" + (GameScheduler.now() + waitMs));
+        Log.debug(Log.Category.GAME, "⏩ 모두 행동함 → {}ms 뒤 마감 (방 #{})", waitMs, room.getId());
+    }
+
+    /** 아직 방에 접속해 있는 참가자 번호 비트마스크 */
+    private static long connectedMask(Room room, GameState game) {
+        long mask = 0;
+        for (int slot = 0; slot < game.size(); slot++) {
+            if (Server.memberByNickname(room, game.nameOf(slot)) != null) mask |= 1L << slot;
+        }
+        return mask;
+    }
+
+    /** 투표 뒤 다음 페이즈 (시간 관리자가 밤을 건너뛰었으면 바로 낮) */
+    private static void startNextPhase(Room room, GameState game) {
+        if (checkTimeManagerSkipNight(game)) {
+            startDayPhase(room);
         } else {
-            startNightPhase();
+            startNightPhase(room);
         }
     }
 
+    /**
+     * 🔵 특수 직업 응답 대기 시작 → 응답 / 마감 / 퇴장 중 먼저 오는 것에 이어서 onClose 실행
+     * (다음 페이즈 예약과 같은 방 타이머를 쓰므로 마감 작업은 onClose가 다음 페이즈를 예약하면 교체됨)
+     */
+    private static void openDecision(Room room, GameState game, Role role, int actor, long timeoutMs, Runnable onClose) {
+        DecisionWindow window = new DecisionWindow(role, actor, onClose);
+        game.decision = window;
+        GameScheduler.schedule(room, timeoutMs, window::close);
+    }
+
+    /** 응답 대기 중인 구간이면 닫고 true */
+    private boolean answerDecision(GameState game, Role role) {
+        DecisionWindow window = game.decision;
+        if (window == null || !window.awaits(role, game.slotOf(nickname))) return false;
+        game.decision = null;
+        window.close();
+        return true;
+    }
+
+    /** 방에 아직 접속해 있는지 (나간 사람에게는 응답을 기다리지 않음) */
+    private static boolean isConnected(Room room, String nick) {
+        return Server.memberByNickname(room, nick) != null;
+    }
+
     /** 🔧 해커 투표 조작 */
-    private void handleHackerChange(String msg) {
-        String[] parts = msg.split("\\|");
-        if (parts.length < 3 || currentRoom == null) return;
-        
-        String voter = parts[1];
-        String newTarget = parts[2];
+    /** HACKER_CHANGE|투표자|새 대상 (필드 없이 보내면 조작 안 함) */
+    private void handleHackerChange(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (game == null || game.decision == null || !game.decision.awaits(Role.HACKER, game.slotOf(nickname))) return;
         
-        Map<String, String> change = new HashMap<>();
-        change.put("voter", voter);
-        change.put("target", newTarget);
-        
-        hackerVoteChange.put(currentRoom, change);
-        System.out.println("🔧 해커가 투표 조작: " + voter + " → " + newTarget);
+        if (cmd.count() >= 3 && !cmd.isEmpty(2)) {
+            String voter = cmd.field(1);
+            String newTarget = cmd.field(2);
+            int v = game.slotOf(voter);
+            int t = game.slotOf(newTarget);
+            if (v != GameState.NONE && t != GameState.NONE) {
+                game.hackerVoter = v;
+                game.hackerTarget = t;
+                Log.info(Log.Category.GAME, "🔧 해커가 투표 조작: {} → {}", voter, newTarget);
+            }
+        }
+        answerDecision(game, Role.HACKER);
     }
 
     /** 🎭 위조범 직업 변경 */
-    private void handleForgerChange(String msg) {
-        String[] parts = msg.split("\\|");
-        if (parts.length < 2 || currentRoom == null) return;
+    /** FORGER_CHANGE|공개할 직업 (비워 보내면 위조 안 함) */
+    private void handleForgerChange(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (game == null || game.decision == null || !game.decision.awaits(Role.FORGER, game.slotOf(nickname))) return;
         
-        String newRole = parts[1];
-        forgedRole.put(currentRoom, newRole);
-        System.out.println("🎭 위조범이 직업 변경: " + newRole);
+        if (!cmd.isEmpty(1)) {
+            String newRole = cmd.field(1);
+            game.forgedRole = newRole;
+            Log.info(Log.Category.GAME, "🎭 위조범이 직업 변경: {}", newRole);
+        }
+        answerDecision(game, Role.FORGER);
     }
 
     /** ⏰ 시간 관리자 능력 사용 */
-    private void handleTimeManagerChoice(String msg) {
-        String[] parts = msg.split("\\|");
-        if (parts.length < 2 || currentRoom == null) return;
-        
-        String choice = parts[1]; // YES or NO
+    private void handleTimeManagerChoice(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (cmd.isEmpty(1) || game == null) return;
+        DecisionWindow window = game.timeDecision;
+        if (window == null || !window.awaits(Role.TIME_MANAGER, game.slotOf(nickname))) return; // 투표 마감 뒤 응답
+        window.close();
         
-        if ("YES".equals(choice)) {
-            timeManagerUsed.put(currentRoom, true);
-            broadcastToRoom("TIME_MANAGER_SKIP|밤을 건너뛰고 다음 낮으로 이동합니다!");
-            System.out.println("⏰ 시간 관리자가 밤을 건너뜀");
+        // YES or NO
+        if (cmd.fieldEquals(1, "YES")) {
+            game.timeManagerUsed = true;
+            game.skipNight = true;
+            broadcastToRoom(room, "TIME_MANAGER_SKIP|밤을 건너뛰고 다음 낮으로 이동합니다!");
+            Log.info(Log.Category.GAME, "⏰ 시간 관리자가 밤을 건너뜀");
         }
+        checkPhaseComplete(room, game); // 투표가 먼저 다 끝나 있었으면 이제 마감 (건너뛰기 표시 뒤에)
     }
 
     /** ⏰ 시간 관리자가 밤을 건너뛰었는지 확인 */
-    private boolean checkTimeManagerSkipNight() {
-        Boolean skipNight = timeManagerUsed.get(currentRoom);
-        if (skipNight != null && skipNight) {
-            timeManagerUsed.put(currentRoom, false); // 1회용이므로 리셋
+    private static boolean checkTimeManagerSkipNight(GameState game) {
+        if (game.skipNight) {
+            game.skipNight = false; // 이번 밤만 (능력 사용 여부 timeManagerUsed는 그대로)
             return true;
         }
         return false;
     }
 
     /** 밤 페이즈 시작 */
-    private void startNightPhase() {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
+    private static void startNightPhase(Room room) {
+        GameState game = GameState.of(room);
+        if (game == null || game.finished) return;
 
-        broadcastToRoom("NIGHT_START|power");
+        long nightMs = room.getNightSeconds() * 1000L;
+        broadcastToRoom(room, "NIGHT_START|power|" + (GameScheduler.now() + nightMs));
         
         // 야간 행동 기록 초기화
-        nightActions.put(currentRoom, new HashMap<>());
-
-        new Thread(() -> {
-            try {
-                Thread.sleep(30000); // 밤 30초
-            } catch (Exception ignored) {}
+        game.clearNight();
 
-            if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
+        schedulePhaseEnd(room, game, nightMs, () -> { // 밤 (모두 행동하면 앞당김)
+            if (game.finished) return;
 
-            resolveNightActions();
+            resolveNightActions(room, game);
 
-            if (checkGameOver()) return;
+            if (checkGameOver(room)) return;
 
-            startDayPhase();
-        }).start();
+            startDayPhase(room);
+        });
     }
 
     /** 야간 행동 처리 */
-    private void handleNightAction(String msg) {
-        String[] p = msg.split("\\|");
-        if (p.length < 4 || currentRoom == null) return;
+    private void handleNightAction(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (cmd.count() < 4 || cmd.isEmpty(3) || game == null) return;
 
-        String actor = p[1];
-        String role = p[2];
-        String target = p[3];
+        String actor = cmd.field(1);
+        Role role = Role.of(cmd.field(2));
+        String target = cmd.field(3);
 
-        if (isDead(currentRoom, actor)) return;
+        int a = game.slotOf(actor);
+        int t = game.slotOf(target);
+        if (a == GameState.NONE || t == GameState.NONE || game.isDead(a)) return;
 
         // 🎭 도둑이 능력을 훔쳤는지 확인
-        String stolenRole = thiefStolenRole.get(currentRoom);
-        if (stolenRole != null && actor.equals(findPlayerByRole(currentRoom, "THIEF"))) {
+        Role stolenRole = game.thiefStolenRole;
+        if (stolenRole != null && a == game.findSlotByRole(Role.THIEF)) {
             // 도둑이 훔친 능력을 사용하려는 경우
-            if (thiefAbilityUsed.getOrDefault(currentRoom, false)) {
-                sendToPlayer(currentRoom, actor, "CHAT|SERVER|❌ 이미 사용된 능력입니다.");
+            if (game.thiefAbilityUsed) {
+                sendToPlayer(room, actor, "CHAT|SERVER|❌ 이미 사용된 능력입니다.");
                 return;
             }
             role = stolenRole; // 훔친 직업의 능력 사용
         }
 
-        if ("MAFIA".equals(role) && actor.equals(target)) {
-            sendToPlayer(currentRoom, actor, "CHAT|SERVER|❌ 마피아는 자신을 선택할 수 없습니다.");
+        if (role == null) return; // 모르는 직업 이름
+
+        if (role == Role.MAFIA && a == t) {
+            sendToPlayer(room, actor, "CHAT|SERVER|❌ 마피아는 자신을 선택할 수 없습니다.");
             return;
         }
 
-        System.out.println("🌙 야간 행동: " + actor + " (" + role + ") → " + target);
+        Log.info(Log.Category.GAME, "🌙 야간 행동: {} ({}) → {}", actor, role, target);
         
         // 야간 행동 기록
-        Map<String, String> actions = nightActions.computeIfAbsent(currentRoom, r -> new HashMap<>());
-        actions.put(actor, target);
+        game.nightTargets[a] = t;
 
         switch (role) {
-            case "MAFIA":
-                mafiaTargets.put(currentRoom, target);
+            case MAFIA:
+                game.mafiaTarget = t;
                 break;
 
-            case "DOCTOR":
-                doctorTargets.put(currentRoom, target);
+            case DOCTOR:
+                game.doctorTarget = t;
                 break;
 
-            case "POLICE":
-                Map<String, String> roles = roomRoles.get(currentRoom);
-                String targetRole = roles != null ? roles.get(target) : null;
-                String team = (targetRole != null && ("MAFIA".equals(targetRole) 
-                    || "FORGER".equals(targetRole) || "HACKER".equals(targetRole))) ? "MAFIA" : targetRole;
+            case POLICE:
+                Role targetRole = game.roleOf(t);
+                // 마피아팀(위조범/해커 포함)은 모두 MAFIA로 보임
+                String team = targetRole != null && targetRole.isMafiaTeam() ? Role.MAFIA.name() : String.valueOf(targetRole);
 
-                sendToPlayer(currentRoom, actor, "POLICE_RESULT|" + target + "|" + team);
+                sendToPlayer(room, actor, "POLICE_RESULT|" + target + "|" + team);
+                break;
+
+            default:
                 break;
         }
+        checkPhaseComplete(room, game);
     }
 
     /** 🔍 추적자 대상 지정 */
-    private void handleTrackerTarget(String msg) {
-        String[] parts = msg.split("\\|");
-        if (parts.length < 2 || currentRoom == null) return;
+    private void handleTrackerTarget(Room room, Command cmd) {
+        GameState game = GameState.of(room);
+        if (cmd.isEmpty(1) || game == null) return;
         
-        String target = parts[1];
-        String trackerNick = findPlayerByRole(currentRoom, "TRACKER");
+        String target = cmd.field(1);
+        int t = game.slotOf(target);
+        int tracker = game.findSlotByRole(Role.TRACKER);
         
-        if (trackerNick != null && nickname.equals(trackerNick)) {
-            trackerTargets.put(currentRoom, target);
-            System.out.println("🔍 추적자가 " + target + " 추적 중");
+        if (t != GameState.NONE && tracker != GameState.NONE && tracker == game.slotOf(nickname)) {
+            game.trackerTarget = t;
+            Log.info(Log.Category.GAME, "🔍 추적자가 {} 추적 중", target);
+            checkPhaseComplete(room, game);
         }
     }
 
     /** 야간 행동 해결 */
-    private void resolveNightActions() {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return;
-
-        String mafiaTarget = mafiaTargets.get(currentRoom);
-        String doctorTarget = doctorTargets.get(currentRoom);
+    private static void resolveNightActions(Room room, GameState game) {
 
-        String dead = null;
+        int mafiaTarget = game.mafiaTarget;
+        int dead = GameState.NONE;
 
-        if (mafiaTarget != null) {
-            if (mafiaTarget.equals(doctorTarget)) {
-                dead = null; // 의사가 구함
-            } else {
-                dead = mafiaTarget;
-                markDead(currentRoom, dead);
-            }
+        // 의사가 같은 사람을 고르면 구함
+        if (mafiaTarget != GameState.NONE && mafiaTarget != game.doctorTarget) {
+            dead = mafiaTarget;
+            markDead(room, dead);
         }
         
         // 🔍 추적자 결과 알림
-        String trackerNick = findPlayerByRole(currentRoom, "TRACKER");
-        String trackerTarget = trackerTargets.get(currentRoom);
+        int tracker = game.findSlotByRole(Role.TRACKER);
+        int trackerTarget = game.trackerTarget;
         
-        if (trackerNick != null && !isDead(currentRoom, trackerNick) && trackerTarget != null) {
-            Map<String, String> actions = nightActions.get(currentRoom);
-            
-            if (actions != null && actions.containsKey(trackerTarget)) {
-                String targetAction = actions.get(trackerTarget);
-                sendToPlayer(currentRoom, trackerNick, "TRACKER_RESULT|" + trackerTarget + "님이 " + targetAction + "님에게 행동했습니다.");
+        if (tracker != GameState.NONE && !game.isDead(tracker) && trackerTarget != GameState.NONE) {
+            String trackerNick = game.nameOf(tracker);
+            String trackedNick = game.nameOf(trackerTarget);
+            int targetAction = game.nightTargets[trackerTarget];
+            if (targetAction != GameState.NONE) {
+                sendToPlayer(room, trackerNick, "TRACKER_RESULT|" + trackedNick + "님이 " + game.nameOf(targetAction) + "님에게 행동했습니다.");
             } else {
-                sendToPlayer(currentRoom, trackerNick, "TRACKER_RESULT|" + trackerTarget + "님은 아무 행동도 하지 않았습니다.");
+                sendToPlayer(room, trackerNick, "TRACKER_RESULT|" + trackedNick + "님은 아무 행동도 하지 않았습니다.");
             }
         }
 
-        mafiaTargets.remove(currentRoom);
-        doctorTargets.remove(currentRoom);
-        trackerTargets.remove(currentRoom);
-        nightActions.remove(currentRoom);
+        game.clearNight();
 
-        if (dead == null) {
-            broadcastToRoom("NIGHT_RESULT|NONE");
+        if (dead == GameState.NONE) {
+            broadcastToRoom(room, "NIGHT_RESULT|NONE");
         } else {
-            broadcastToRoom("NIGHT_RESULT|" + dead);
+            broadcastToRoom(room, "NIGHT_RESULT|" + game.nameOf(dead));
         }
 
-        broadcastPlayerList(currentRoom);
+        broadcastPlayerList(room);
     }
 
     /** 게임 종료 체크 */
-    private boolean checkGameOver() {
-        if (currentRoom == null || finishedRooms.contains(currentRoom)) return true;
-
-        Map<String, String> roles = roomRoles.get(currentRoom);
-        if (roles == null) return false;
-
-        Set<String> dead = deadPlayers.getOrDefault(currentRoom, Collections.emptySet());
+    private static boolean checkGameOver(Room room) {
+        GameState game = GameState.of(room);
+        if (game == null || game.finished) return true;
 
         int mafia = 0;
         int others = 0;
         boolean jesterAlive = false;
         boolean thiefAlive = false;
 
-        for (String p : currentRoom.getPlayers()) {
-            if (dead.contains(p)) continue;
-            
-            String role = roles.get(p);
+        // 살아 있는 번호만 비트로 훑음
+        for (long alive = game.aliveMask(); alive != 0; alive &= alive - 1) {
+            Role role = game.roleOf(Long.numberOfTrailingZeros(alive));
             
-            if ("JESTER".equals(role)) {
+            if (role == Role.JESTER) {
                 jesterAlive = true;
                 others++;
-            } else if ("THIEF".equals(role)) {
+            } else if (role == Role.THIEF) {
                 thiefAlive = true;
                 // 도둑이 마피아 능력을 훔쳤다면 마피아팀으로 간주
-                String stolenRole = thiefStolenRole.get(currentRoom);
-                if (stolenRole != null && ("MAFIA".equals(stolenRole) || "FORGER".equals(stolenRole) || "HACKER".equals(stolenRole))) {
+                Role stolenRole = game.thiefStolenRole;
+                if (stolenRole != null && stolenRole.isMafiaTeam()) {
                     mafia++;
                 } else {
                     others++;
                 }
-            } else if ("MAFIA".equals(role) || "FORGER".equals(role) || "HACKER".equals(role)) {
+            } else if (role != null && role.isMafiaTeam()) {
                 mafia++;
             } else {
                 others++;
@@ -1004,50 +1293,50 @@ public class ClientHandler implements Runnable {
         }
 
         if (winner != null) {
-            finishedRooms.add(currentRoom);
+            game.finished = true;
+            Server.roomChanged(room); // 끝난 방은 로비 목록에서 빠짐
 
             StringBuilder winnerInfo = new StringBuilder("GAME_OVER|" + winner + "|");
             
-            for (String player : currentRoom.getPlayers()) {
-                String role = roles.get(player);
+            for (int slot = 0; slot < game.size(); slot++) {
+                String player = game.nameOf(slot);
+                Role role = game.roleOf(slot);
+                boolean mafiaTeam = role != null && role.isMafiaTeam();
                 
                 if (winner.equals("CIVIL")) {
-                    if (!"MAFIA".equals(role) && !"FORGER".equals(role) && !"HACKER".equals(role)) {
+                    if (!mafiaTeam) {
                         winnerInfo.append(player).append(":").append(role).append(",");
                     }
                 } else if (winner.equals("MAFIA")) {
-                    if ("MAFIA".equals(role) || "FORGER".equals(role) || "HACKER".equals(role)) {
+                    if (mafiaTeam) {
                         winnerInfo.append(player).append(":").append(role).append(",");
                     }
                 }
             }
             
-            broadcastToRoom(winnerInfo.toString());
-            System.out.println("🏁 게임 종료! 승자: " + winner);
+            broadcastToRoom(room, winnerInfo.toString());
+            Log.info(Log.Category.GAME, "🏁 게임 종료! 승자: {}", winner);
 
-            cleanupRoom(currentRoom);
+            cleanupRoom(room);
             return true;
         }
 
         return false;
     }
 
-    /** 방 정리 */
-    private void cleanupRoom(Room room) {
-        roomVotes.remove(room);
-        deadPlayers.remove(room);
-        mafiaTargets.remove(room);
-        doctorTargets.remove(room);
-        roomRoles.remove(room);
-        forgerUsed.remove(room);
-        hackerUsed.remove(room);
-        timeManagerUsed.remove(room);
-        forgedRole.remove(room);
-        hackerVoteChange.remove(room);
-        thiefStolenRole.remove(room);
-        thiefAbilityUsed.remove(room);
-        destinyTargets.remove(room);
-        trackerTargets.remove(room);
-        nightActions.remove(room);
+    /** 게임이 끝난 방인지 (로비 목록/검색에서 빠짐) */
+    static boolean isFinished(Room room) {
+        GameState game = GameState.of(room);
+        return game != null && game.finished;
+    }
+
+    /**
+     * 방 정리 → 남은 페이즈 타이머 취소 + 게임 종료 표시
+     * (게임 상태 자체는 방에 붙어 있다가 방이 삭제될 때 같이 사라짐)
+     */
+    private static void cleanupRoom(Room room) {
+        GameScheduler.cancel(room);
+        GameState game = GameState.of(room);
+        if (game != null) game.finished = true;
     }
-}
\ No newline at end of file
+}
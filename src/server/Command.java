@@ -0,0 +1,24 @@
+package server;
+
+import common.MessageView;
+
+/**
+ * Command - 수신 메시지 한 줄을 '|' 기준으로 나눈 뷰 (연결마다 하나를 재사용)
+ * - 필드 해석은 common.MessageView (클라이언트 ServerEvent와 같은 구현)
+ * - 필드 수를 제한해 위치 배열을 재사용 → 메시지마다 할당 없음
+ * - 다음 메시지를 읽으면 내용이 바뀌므로 핸들러 밖으로 넘길 때는 field()로 문자열을 꺼낼 것
+ */
+final class Command extends MessageView {
+
+    private static final int MAX_FIELDS = 16;
+
+    Command() {
+        super(MAX_FIELDS);
+    }
+
+    /** 🔵 새 메시지로 다시 채우기 (할당 없음) */
+    Command reset(String line) {
+        load(line);
+        return this;
+    }
+}
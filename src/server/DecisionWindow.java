@@ -0,0 +1,45 @@
+package server;
+
+import common.Role;
+
+/**
+ * DecisionWindow - 특수 직업 한 명의 응답을 기다리는 구간 (해커 / 위조범 / 시간 관리자)
+ * - 응답이 오거나, 마감 시간이 되거나, 그 플레이어가 나가면 닫힘 → 셋 중 먼저 온 것 한 번만 이어서 진행
+ *   (예전: 응답이 1초 만에 와도 15초를 다 기다림)
+ * - 기다리는 동안 스레드를 잡고 있지 않음 (이어서 할 일만 들고 있음)
+ * - 그 방의 작업 대기열(RoomExecutor)에서만 다룸 → 락 없음
+ */
+final class DecisionWindow {
+
+    final Role role;
+    final int actor; // 응답할 플레이어 번호
+    private Runnable onClose;
+    private boolean closed;
+
+    /**
+     * @param onClose 닫힐 때 이어서 할 일 (없으면 null — 응답 여부만 추적)
+     */
+    DecisionWindow(Role role, int actor, Runnable onClose) {
+        this.role = role;
+        this.actor = actor;
+        this.onClose = onClose;
+    }
+
+    /** 이 직업/플레이어의 응답을 아직 기다리는 중인지 */
+    boolean awaits(Role role, int slot) {
+        return !closed && this.role == role && actor == slot;
+    }
+
+    boolean isOpen() {
+        return !closed;
+    }
+
+    /** 🔵 닫기 (응답 도착 / 마감 / 퇴장 공용, 두 번째 호출부터는 무시) */
+    void close() {
+        if (closed) return;
+        closed = true;
+        Runnable next = onClose;
+        onClose = null;
+        if (next != null) next.run();
+    }
+}
@@ -0,0 +1,131 @@
+package server;
+
+import common.Room;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GameScheduler - 게임 페이즈 타이머 (서버 전체에 타이머 스레드 하나)
+ * - 예전: 페이즈마다 스레드를 만들고 Thread.sleep → 방 1000개면 잠자는 스레드 수천 개
+ * - 지금: 정해진 시간 뒤 실행할 작업만 예약 → 게임 수와 상관없이 타이머 스레드 1개
+ * - 방마다 대기 중인 페이즈 작업은 하나 (다음 페이즈를 예약하면 이전 것은 이미 끝났거나 취소됨)
+ * - 게임이 끝나거나 방이 비면 cancel → 남은 작업이 깨어나 엉뚱한 방에 메시지를 보내지 않음
+ * - 타이머 스레드는 시간만 재고, 실제 페이즈 처리는 그 방의 작업 대기열(RoomExecutor)로 넘김
+ *   → 한 방의 처리가 다른 방 타이머를 늦추지 않고, 같은 방의 플레이어 명령과 순서대로 실행됨
+ *
+ * 📊 지연(lag) = 예약한 시각보다 실제로 깨어난 시각이 늦은 정도
+ */
+final class GameScheduler {
+
+    /** 방 하나의 타이머 상태 (begin ~ cancel 사이에만 존재) */
+    private static final class RoomTimer {
+        final ReentrantLock lock = new ReentrantLock();
+        ScheduledFuture<?> pending;
+    }
+
+    private static final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "game-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        // 취소된 작업은 바로 큐에서 빠짐 → 끝난 게임의 30초짜리 작업이 메모리에 남지 않음
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final Map<Room, RoomTimer> rooms = new ConcurrentHashMap<>();
+
+    // 📊 타이머 지표
+    private static final AtomicLong fired = new AtomicLong();
+    private static final AtomicLong cancelled = new AtomicLong();
+    private static final AtomicLong totalLagMicros = new AtomicLong();
+    private static final AtomicLong maxLagMicros = new AtomicLong();
+
+    private GameScheduler() {}
+
+    /** 🔵 게임 시작 → 이 방의 페이즈 예약을 받기 시작 */
+    static void begin(Room room) {
+        RoomTimer previous = rooms.put(room, new RoomTimer());
+        if (previous != null) cancelPending(previous);
+    }
+
+    /**
+     * 🔵 delayMs 뒤에 페이즈 작업 실행 예약
+     * - 게임이 이미 끝난(cancel된) 방이면 무시
+     * - 이전에 예약된 작업이 아직 남아 있으면 취소하고 새 작업으로 교체
+     */
+    static void schedule(Room room, long delayMs, Runnable task) {
+        RoomTimer rt = rooms.get(room);
+        if (rt == null) return;
+
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        rt.lock.lock();
+        try {
+            if (rooms.get(room) != rt) return; // 그 사이 cancel됨
+            if (rt.pending != null && rt.pending.cancel(false)) cancelled.incrementAndGet();
+            rt.pending = timer.schedule(() -> fire(room, rt, due, task), delayMs, TimeUnit.MILLISECONDS);
+        } finally {
+            rt.lock.unlock();
+        }
+    }
+
+    /** 🔵 게임 종료 / 방 정리 → 대기 중인 페이즈 작업 취소, 이후 예약은 무시 */
+    static void cancel(Room room) {
+        RoomTimer rt = rooms.remove(room);
+        if (rt != null) cancelPending(rt);
+    }
+
+    /**
+     * 🔵 서버 단조 시계 (ms) — 페이즈 마감 시각과 TIME_SYNC 응답에 씀
+     * (벽시계가 아니므로 서버 시간 변경에 흔들리지 않음, 값 자체는 서버 프로세스 안에서만 의미 있음)
+     */
+    static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /** 📊 타이머 지표 한 줄 요약 */
+    static String metrics() {
+        long n = fired.get();
+        long avg = n == 0 ? 0 : totalLagMicros.get() / n;
+        return "페이즈 타이머 진행 중인 방=" + rooms.size()
+                + " | 대기 작업=" + timer.getQueue().size()
+                + " | 실행=" + n
+                + " | 취소=" + cancelled.get()
+                + " | 지연 평균=" + formatMillis(avg) + "ms"
+                + " | 최대=" + formatMillis(maxLagMicros.get()) + "ms";
+    }
+
+    private static void fire(Room room, RoomTimer rt, long due, Runnable task) {
+        long lag = Math.max(0, (System.nanoTime() - due) / 1000);
+        fired.incrementAndGet();
+        totalLagMicros.addAndGet(lag);
+        maxLagMicros.accumulateAndGet(lag, Math::max);
+
+        RoomExecutor.execute(room, () -> {
+            // 취소와 거의 동시에 깨어난 경우 → 끝난 게임이면 실행하지 않음 (취소도 같은 대기열에서 처리됨)
+            if (rooms.get(room) == rt) task.run();
+        });
+    }
+
+    private static void cancelPending(RoomTimer rt) {
+        rt.lock.lock();
+        try {
+            if (rt.pending != null && rt.pending.cancel(false)) cancelled.incrementAndGet();
+            rt.pending = null;
+        } finally {
+            rt.lock.unlock();
+        }
+    }
+
+    /** 마이크로초 → "12.3" 형식의 밀리초 */
+    private static String formatMillis(long micros) {
+        return (micros / 1000) + "." + (micros % 1000 / 100);
+    }
+}
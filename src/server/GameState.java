@@ -0,0 +1,256 @@
+package server;
+
+import common.Role;
+import common.Room;
+
+import java.util.*;
+
+/**
+ * GameState - 방 하나의 게임 진행 상태 (게임 시작 때 만들어 Room에 붙임)
+ * - 예전: Room을 키로 하는 static 맵 16개 → 행동마다 해시 조회 여러 번, 정리할 때 하나라도 빠뜨리면 남음
+ * - 지금: 방에서 바로 꺼내 쓰는 객체 하나 → 방이 삭제되면 같이 사라짐
+ * - finished 외의 필드는 그 방의 작업 대기열(RoomExecutor)에서만 다룸 → 락 없음
+ *
+ * 플레이어 번호(slot)
+ * - 게임 시작 때 플레이어마다 0부터 번호를 붙이고 이후 상태는 번호로 관리
+ * - 사망자는 long 비트마스크, 투표/밤 행동은 int 배열 (대상 번호, 없으면 NONE)
+ *   → 투표 집계/밤 결과/승리 판정이 객체를 만들지 않음
+ * - 닉네임 → 번호 변환은 명령을 받을 때 한 번만
+ */
+final class GameState {
+
+    /** long 비트마스크 한 개로 다룰 수 있는 최대 인원 */
+    static final int MAX_PLAYERS = 64;
+    /** 대상 없음 */
+    static final int NONE = -1;
+
+    // 번호 → 닉네임 / 직업 (게임 시작 때 한 번 정해짐)
+    private final String[] players;
+    private final Role[] roles;
+    private final Map<String, Integer> slots = new HashMap<>();
+    // 게임이 끝남 → 로비 목록에서 빠지고 더 이상 페이즈 진행 안 함 (다른 스레드도 읽으므로 volatile)
+    volatile boolean finished;
+
+    // 사망자 (비트 i = i번 플레이어)
+    private long dead;
+
+    // 낮 투표 (투표자 번호 → 대상 번호), VOTE_START ~ 투표 마감 사이에만 받음
+    final int[] votes;
+    boolean votingOpen;
+    private final int[] tally; // 집계용 (재사용)
+
+    // 밤 행동 (대상 번호)
+    int mafiaTarget = NONE;
+    int doctorTarget = NONE;
+    int trackerTarget = NONE;
+    final int[] nightTargets; // 행동한 사람 번호 → 대상 번호 (추적자용)
+
+    // 특수 능력
+    boolean forgerUsed;
+    boolean hackerUsed;
+    boolean timeManagerUsed;       // 능력 씀 (한 번 쓰면 끝까지 true → 다시 묻지 않음)
+    boolean skipNight;             // 이번 밤 건너뛰기 요청됨 (건너뛰면 다시 false)
+    String forgedRole;             // 위조범이 고른 공개 직업
+    int hackerVoter = NONE;        // 해커가 조작한 투표자
+    int hackerTarget = NONE;       // 조작 후 대상
+
+    // 도둑 시스템
+    Role thiefStolenRole;
+    boolean thiefAbilityUsed;
+
+    // 운명가 시스템
+    List<String> destinyTargets = Collections.emptyList();
+
+    // 투표/밤 마감 작업 (필요한 사람이 모두 행동하면 앞당김, 실행되거나 앞당기면 null)
+    Runnable phaseEnd;
+    long phaseStartNanos;
+
+    // 응답 대기 구간 (해커/위조범: 다음 진행을 막고 기다림, 시간 관리자: 투표 마감까지 응답만 받음)
+    DecisionWindow decision;
+    DecisionWindow timeDecision;
+
+    /**
+     * @param order    번호 순서 (방의 플레이어 목록 순서)
+     * @param assigned 닉네임 → 직업
+     */
+    GameState(List<String> order, Map<String, Role> assigned) {
+        int n = order.size();
+        if (n > MAX_PLAYERS) throw new IllegalArgumentException("too many players: " + n);
+
+        players = order.toArray(new String[0]);
+        roles = new Role[n];
+        for (int i = 0; i < n; i++) {
+            roles[i] = assigned.get(players[i]);
+            slots.put(players[i], i);
+        }
+        votes = new int[n];
+        tally = new int[n];
+        nightTargets = new int[n];
+        Arrays.fill(votes, NONE);
+        Arrays.fill(nightTargets, NONE);
+    }
+
+    /** 🔵 방에 붙은 게임 상태 (게임을 시작한 적 없으면 null) */
+    static GameState of(Room room) {
+        return room != null ? (GameState) room.getGameState() : null;
+    }
+
+    /** 게임이 진행 중인지 (시작했고 아직 안 끝남) */
+    boolean running() {
+        return !finished;
+    }
+
+    int size() {
+        return players.length;
+    }
+
+    /** 닉네임 → 번호 (게임 참가자가 아니면 NONE) */
+    int slotOf(String nick) {
+        if (nick == null) return NONE;
+        Integer slot = slots.get(nick);
+        return slot != null ? slot : NONE;
+    }
+
+    String nameOf(int slot) {
+        return players[slot];
+    }
+
+    Role roleOf(int slot) {
+        return roles[slot];
+    }
+
+    /** 닉네임의 직업 (참가자가 아니면 null) */
+    Role roleOf(String nick) {
+        int slot = slotOf(nick);
+        return slot != NONE ? roles[slot] : null;
+    }
+
+    boolean isDead(int slot) {
+        return (dead & (1L << slot)) != 0;
+    }
+
+    boolean isDead(String nick) {
+        int slot = slotOf(nick);
+        return slot != NONE && isDead(slot);
+    }
+
+    void markDead(int slot) {
+        dead |= 1L << slot;
+    }
+
+    /** 살아 있는 플레이어 비트마스크 */
+    long aliveMask() {
+        long all = players.length == 64 ? -1L : (1L << players.length) - 1;
+        return all & ~dead;
+    }
+
+    /** 해당 직업을 가진 첫 플레이어 번호 (없으면 NONE) */
+    int findSlotByRole(Role role) {
+        for (int i = 0; i < roles.length; i++) {
+            if (roles[i] == role) return i;
+        }
+        return NONE;
+    }
+
+    /** 해당 직업을 가진 첫 플레이어 닉네임 (없으면 null) */
+    String findPlayerByRole(Role role) {
+        int slot = findSlotByRole(role);
+        return slot != NONE ? players[slot] : null;
+    }
+
+    boolean hasVotes() {
+        for (int v : votes) {
+            if (v != NONE) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 🔵 투표 집계 → 처형할 플레이어 번호
+     * @return 최다 득표자 번호, 투표가 없거나 최다 득표가 동점이면 NONE (아무도 안 죽음)
+     */
+    int tallyVotes() {
+        Arrays.fill(tally, 0);
+        for (int target : votes) {
+            if (target != NONE) tally[target]++;
+        }
+
+        int top = NONE;
+        int max = 0;
+        boolean tie = false;
+        for (int i = 0; i < tally.length; i++) {
+            if (tally[i] > max) {
+                max = tally[i];
+                top = i;
+                tie = false;
+            } else if (tally[i] == max && max > 0) {
+                tie = true;
+            }
+        }
+        return tie ? NONE : top;
+    }
+
+    /**
+     * 🔵 투표가 모두 끝났는지 — 살아 있고 접속 중인 참가자가 전부 투표했고 시간 관리자 응답도 끝남
+     * @param connected 아직 접속 중인 번호 비트마스크 (나간 사람은 기다리지 않음)
+     */
+    boolean allVoted(long connected) {
+        if (awaitsTimeManager(connected)) return false;
+        for (long waiting = aliveMask() & connected; waiting != 0; waiting &= waiting - 1) {
+            if (votes[Long.numberOfTrailingZeros(waiting)] == NONE) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 시간 관리자 응답을 아직 기다리는지
+     * (능력을 이미 썼거나 응답할 사람이 죽었거나 나갔으면 창이 열려 있어도 기다리지 않음 → 조기 마감이 막히지 않음)
+     */
+    private boolean awaitsTimeManager(long connected) {
+        DecisionWindow window = timeDecision;
+        return window != null && window.isOpen() && !timeManagerUsed
+                && (aliveMask() & connected & (1L << window.actor)) != 0;
+    }
+
+    /**
+     * 🔵 밤 행동이 모두 끝났는지 — 밤 능력이 있는 생존자(+ 밤 능력을 훔친 도둑)가 전부 행동함
+     * - 마피아는 팀으로 한 명만 대상을 고르면 됨
+     * - 추적자 능력을 훔친 도둑은 서버가 받는 경로가 없으므로 기다리지 않음
+     * @param connected 아직 접속 중인 번호 비트마스크
+     */
+    boolean allNightActed(long connected) {
+        for (long waiting = aliveMask() & connected; waiting != 0; waiting &= waiting - 1) {
+            int slot = Long.numberOfTrailingZeros(waiting);
+            Role role = roles[slot];
+            if (role == Role.THIEF) {
+                if (thiefStolenRole == null || thiefAbilityUsed || !thiefStolenRole.hasNightAbility()
+                        || thiefStolenRole == Role.TRACKER) continue;
+                if (nightTargets[slot] == NONE) return false;
+            } else if (role == Role.MAFIA) {
+                if (mafiaTarget == NONE) return false;
+            } else if (role == Role.TRACKER) {
+                if (trackerTarget == NONE) return false;
+            } else if (role != null && role.hasNightAbility()) {
+                if (nightTargets[slot] == NONE) return false;
+            }
+        }
+        return true;
+    }
+
+    /** 플레이어가 나감 → 그 사람의 응답을 기다리던 구간은 바로 닫음 */
+    void abandonDecisions(int slot) {
+        if (decision != null && decision.isOpen() && decision.actor == slot) decision.close();
+        if (timeDecision != null && timeDecision.isOpen() && timeDecision.actor == slot) timeDecision.close();
+    }
+
+    void clearVotes() {
+        Arrays.fill(votes, NONE);
+    }
+
+    void clearNight() {
+        mafiaTarget = NONE;
+        doctorTarget = NONE;
+        trackerTarget = NONE;
+        Arrays.fill(nightTargets, NONE);
+    }
+}
@@ -0,0 +1,329 @@
+package server;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log - 서버 로그 (비동기, 링 버퍼)
+ * - 호출하는 쪽은 링 버퍼 칸에 (시간, 레벨, 카테고리, 틀, 인자)만 넣고 바로 반환
+ *   → 문자열 조립/콘솔·파일 쓰기는 전부 백그라운드 스레드 하나가 처리 (stdout 락 경쟁 없음)
+ * - 링 버퍼는 락 없는 다중 생산자 / 단일 소비자 구조, 가득 차면 기다리지 않고 버림 (버린 수는 지표로)
+ * - 메시지 틀의 "{}" 자리에 인자가 들어감 (꺼진 레벨이면 문자열을 아예 만들지 않음)
+ *   → 인자는 나중에 다른 스레드에서 문자열이 되므로 바뀌지 않는 값만 넘길 것 (바뀌는 컬렉션은 String.valueOf로)
+ *
+ * 설정 (시스템 프로퍼티)
+ * - mafia.log.level        : 기본 레벨 (DEBUG / INFO / WARN / ERROR / OFF, 기본 INFO)
+ * - mafia.log.<카테고리>     : 카테고리별 레벨 (예: -Dmafia.log.PROTOCOL=DEBUG, -Dmafia.log.GAME=OFF)
+ * - mafia.log.file         : 로그 파일 (기본 logs/mafia-server.log, 빈 값이면 파일 안 씀)
+ * - mafia.log.maxBytes     : 파일 하나 최대 크기 (기본 10MB, 넘으면 .1 .2 ... 로 밀어냄)
+ * - mafia.log.files        : 보관할 이전 파일 수 (기본 5)
+ * - mafia.log.console      : 콘솔에도 출력 (기본 true)
+ * - mafia.log.capacity     : 링 버퍼 칸 수 (2의 거듭제곱으로 올림, 기본 8192)
+ */
+final class Log {
+
+    enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    /** 로그 분류 (카테고리마다 레벨을 따로 켜고 끔) */
+    enum Category {
+        SERVER,   // 시작/설정/지표
+        NET,      // 연결/끊김/전송 오류
+        PROTOCOL, // 수신 메시지/협상 (메시지마다 찍히므로 기본 DEBUG 레벨로만 사용)
+        ROOM,     // 방 생성/입장
+        GAME      // 게임 진행 (역할, 투표, 밤 행동 ...)
+    }
+
+    private static final int CAPACITY = ceilPow2(Integer.getInteger("mafia.log.capacity", 8192));
+    private static final int MASK = CAPACITY - 1;
+
+    // 카테고리별 최소 레벨 (ordinal 비교 한 번으로 켜짐 여부 판단)
+    private static final int[] thresholds = new int[Category.values().length];
+
+    // 링 버퍼: 칸마다 순번(seq)으로 "쓰기 가능 / 읽기 가능"을 표시 (Vyukov 방식)
+    private static final AtomicLongArray seqs = new AtomicLongArray(CAPACITY);
+    private static final Entry[] slots = new Entry[CAPACITY];
+    private static final AtomicLong tail = new AtomicLong(); // 생산자들이 CAS로 자리 확보
+    private static long head = 0;                            // 소비자(drain 스레드)만 사용
+
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+
+    private static volatile boolean running = true;
+    private static final Thread drainer;
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT).withZone(ZoneId.systemDefault());
+
+    /** 링 버퍼 한 칸 (미리 만들어 두고 재사용) */
+    private static final class Entry {
+        long time;
+        Level level;
+        Category category;
+        String thread;
+        String template;
+        Object a1, a2, a3, a4;
+        int argc;
+    }
+
+    static {
+        Level base = parseLevel(System.getProperty("mafia.log.level"), Level.INFO);
+        for (Category c : Category.values()) {
+            thresholds[c.ordinal()] = parseLevel(System.getProperty("mafia.log." + c.name()), base).ordinal();
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            seqs.set(i, i);
+            slots[i] = new Entry();
+        }
+
+        drainer = new Thread(new Drainer(), "log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        // 종료 시 남은 로그를 마저 씀
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            running = false;
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(2000);
+            } catch (InterruptedException ignored) {}
+        }, "log-shutdown"));
+    }
+
+    private Log() {}
+
+    /** 🔵 해당 카테고리/레벨이 켜져 있는지 (인자 계산이 비쌀 때 미리 확인용) */
+    static boolean enabled(Category c, Level level) {
+        return level.ordinal() >= thresholds[c.ordinal()];
+    }
+
+    static void debug(Category c, String template) { log(Level.DEBUG, c, template, null, null, null, null, 0); }
+    static void debug(Category c, String template, Object a1) { log(Level.DEBUG, c, template, a1, null, null, null, 1); }
+    static void debug(Category c, String template, Object a1, Object a2) { log(Level.DEBUG, c, template, a1, a2, null, null, 2); }
+    static void debug(Category c, String template, Object a1, Object a2, Object a3) { log(Level.DEBUG, c, template, a1, a2, a3, null, 3); }
+
+    static void info(Category c, String template) { log(Level.INFO, c, template, null, null, null, null, 0); }
+    static void info(Category c, String template, Object a1) { log(Level.INFO, c, template, a1, null, null, null, 1); }
+    static void info(Category c, String template, Object a1, Object a2) { log(Level.INFO, c, template, a1, a2, null, null, 2); }
+    static void info(Category c, String template, Object a1, Object a2, Object a3) { log(Level.INFO, c, template, a1, a2, a3, null, 3); }
+    static void info(Category c, String template, Object a1, Object a2, Object a3, Object a4) { log(Level.INFO, c, template, a1, a2, a3, a4, 4); }
+
+    static void warn(Category c, String template) { log(Level.WARN, c, template, null, null, null, null, 0); }
+    static void warn(Category c, String template, Object a1) { log(Level.WARN, c, template, a1, null, null, null, 1); }
+    static void warn(Category c, String template, Object a1, Object a2) { log(Level.WARN, c, template, a1, a2, null, null, 2); }
+
+    static void error(Category c, String template) { log(Level.ERROR, c, template, null, null, null, null, 0); }
+    static void error(Category c, String template, Object a1) { log(Level.ERROR, c, template, a1, null, null, null, 1); }
+    static void error(Category c, String template, Object a1, Object a2) { log(Level.ERROR, c, template, a1, a2, null, null, 2); }
+
+    /** 📊 로그 지표 한 줄 요약 */
+    static String metrics() {
+        return "로그 기록=" + written.get() + " | 버림=" + dropped.get();
+    }
+
+    /** 🔵 링 버퍼에 넣기 (락/대기 없음, 가득 차면 버림) */
+    private static void log(Level level, Category c, String template, Object a1, Object a2, Object a3, Object a4, int argc) {
+        if (level.ordinal() < thresholds[c.ordinal()]) return;
+
+        long pos;
+        while (true) {
+            pos = tail.get();
+            long seq = seqs.get((int) (pos & MASK));
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) break; // 이 칸 확보
+            } else if (seq < pos) {
+                dropped.incrementAndGet(); // 소비자가 못 따라옴 → 기다리지 않고 버림
+                return;
+            }
+            // seq > pos: 다른 생산자가 먼저 가져감 → 다시 시도
+        }
+
+        int idx = (int) (pos & MASK);
+        Entry e = slots[idx];
+        e.time = System.currentTimeMillis();
+        e.level = level;
+        e.category = c;
+        e.thread = Thread.currentThread().getName();
+        e.template = template;
+        e.a1 = a1;
+        e.a2 = a2;
+        e.a3 = a3;
+        e.a4 = a4;
+        e.argc = argc;
+        seqs.lazySet(idx, pos + 1); // 읽기 가능 표시 (위 필드 쓰기가 먼저 보장됨)
+    }
+
+    /** 백그라운드: 링 버퍼를 비우면서 문자열 조립 + 콘솔/파일 쓰기 */
+    private static final class Drainer implements Runnable {
+
+        private final boolean console = Boolean.parseBoolean(System.getProperty("mafia.log.console", "true"));
+        private final RollingFile file = RollingFile.open(System.getProperty("mafia.log.file", "logs/mafia-server.log"));
+        private final StringBuilder sb = new StringBuilder(256);
+
+        @Override
+        public void run() {
+            while (true) {
+                int n = drainBatch();
+                if (n > 0) {
+                    if (file != null) file.flush();
+                    if (console) System.out.flush();
+                    continue;
+                }
+                if (!running) break;
+                LockSupport.parkNanos(2_000_000L); // 비어 있으면 2ms 쉬고 다시 확인
+            }
+            if (file != null) file.close();
+        }
+
+        private int drainBatch() {
+            int n = 0;
+            while (n < CAPACITY) {
+                int idx = (int) (head & MASK);
+                if (seqs.get(idx) != head + 1) break; // 아직 채워지지 않음
+
+                Entry e = slots[idx];
+                format(e);
+                e.a1 = e.a2 = e.a3 = e.a4 = null; // 인자 참조 해제 (GC)
+                e.template = null;
+                seqs.lazySet(idx, head + CAPACITY); // 한 바퀴 뒤 생산자에게 반환
+                head++;
+                n++;
+
+                String line = sb.toString();
+                if (console) System.out.println(line);
+                if (file != null) file.writeLine(line);
+                written.incrementAndGet();
+            }
+            return n;
+        }
+
+        private void format(Entry e) {
+            sb.setLength(0);
+            TIME.formatTo(Instant.ofEpochMilli(e.time), sb);
+            sb.append(' ').append(e.level).append(" [").append(e.category).append("] [")
+              .append(e.thread).append("] ");
+
+            String t = e.template;
+            int argIndex = 0;
+            Throwable error = null;
+            int from = 0;
+            while (true) {
+                int at = t.indexOf("{}", from);
+                if (at < 0 || argIndex >= e.argc) break;
+                sb.append(t, from, at).append(arg(e, argIndex++));
+                from = at + 2;
+            }
+            sb.append(t, from, t.length());
+
+            // 자리에 안 쓰인 마지막 인자가 예외면 스택 추적을 붙임
+            if (argIndex < e.argc && arg(e, e.argc - 1) instanceof Throwable) {
+                error = (Throwable) arg(e, e.argc - 1);
+            }
+            if (error != null) {
+                StringWriter w = new StringWriter();
+                error.printStackTrace(new PrintWriter(w));
+                sb.append(System.lineSeparator()).append(w.toString().stripTrailing());
+            }
+        }
+
+        private static Object arg(Entry e, int i) {
+            return i == 0 ? e.a1 : i == 1 ? e.a2 : i == 2 ? e.a3 : e.a4;
+        }
+    }
+
+    /** 크기 제한이 있는 로그 파일 (넘치면 파일.1, 파일.2 ... 로 밀어내고 새로 씀) */
+    private static final class RollingFile {
+
+        private final Path path;
+        private final long maxBytes = Long.getLong("mafia.log.maxBytes", 10L * 1024 * 1024);
+        private final int keep = Integer.getInteger("mafia.log.files", 5);
+        private Writer out;
+        private long size;
+
+        private RollingFile(Path path) throws IOException {
+            this.path = path;
+            Path dir = path.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            size = Files.exists(path) ? Files.size(path) : 0;
+            out = newWriter();
+        }
+
+        static RollingFile open(String file) {
+            if (file == null || file.isEmpty()) return null;
+            try {
+                return new RollingFile(Paths.get(file));
+            } catch (IOException e) {
+                System.err.println("⚠ 로그 파일을 열 수 없음 → 콘솔만 사용: " + e.getMessage());
+                return null;
+            }
+        }
+
+        void writeLine(String line) {
+            if (out == null) return;
+            try {
+                out.write(line);
+                out.write('\n');
+                size += line.length() + 1; // 대략적인 크기 (한글은 실제로 더 큼 → 조금 늦게 넘어감)
+                if (size >= maxBytes) roll();
+            } catch (IOException e) {
+                System.err.println("⚠ 로그 파일 쓰기 실패: " + e.getMessage());
+            }
+        }
+
+        void flush() {
+            if (out == null) return;
+            try {
+                out.flush();
+            } catch (IOException ignored) {}
+        }
+
+        void close() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException ignored) {}
+        }
+
+        private void roll() throws IOException {
+            out.close();
+            for (int i = keep - 1; i >= 1; i--) {
+                Path from = Paths.get(path + "." + i);
+                if (Files.exists(from)) Files.move(from, Paths.get(path + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (keep > 0) {
+                Files.move(path, Paths.get(path + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(path);
+            }
+            size = 0;
+            out = newWriter();
+        }
+
+        private Writer newWriter() throws IOException {
+            return new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                    StandardCharsets.UTF_8), 64 * 1024);
+        }
+    }
+
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.trim().isEmpty()) return fallback;
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private static int ceilPow2(int n) {
+        int v = Integer.highestOneBit(Math.max(2, n));
+        return v == n ? v : v << 1;
+    }
+}
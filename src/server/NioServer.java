@@ -0,0 +1,260 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+import common.WireCodec;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * NioServer - Selector 기반 이벤트 루프 서버
+ * - 메인 스레드: ServerSocketChannel accept 전담
+ * - 이벤트 루프 N개: 각자 Selector 하나로 여러 연결의 읽기/쓰기 처리
+ * - 한 줄(\n) 또는 바이너리 프레임 단위로 디코딩해서 기존 ClientHandler 명령 처리로 전달
+ */
+public class NioServer {
+
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final int port;
+    private final EventLoop[] loops;
+    private int nextLoop = 0;
+
+    public NioServer(int port, int loopCount) {
+        this.port = port;
+        this.loops = new EventLoop[Math.max(1, loopCount)];
+    }
+
+    /** 🔵 이벤트 루프 시작 후 accept 반복 (블로킹) */
+    public void start() throws IOException {
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+            Thread t = new Thread(loops[i], "nio-loop-" + i);
+            t.setDaemon(false);
+            t.start();
+        }
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            Log.info(Log.Category.SERVER, "💡 NIO 모드: 이벤트 루프 {}개", loops.length);
+
+            while (true) {
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                Log.info(Log.Category.NET, "✨ 클라이언트 연결됨: {}", channel.getRemoteAddress());
+
+                // 라운드 로빈으로 이벤트 루프에 분배
+                EventLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                loop.register(channel);
+            }
+        }
+    }
+
+    /** 이벤트 루프 하나 = 스레드 하나 + Selector 하나 */
+    private static class EventLoop implements Runnable {
+
+        private final int index;
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private volatile Thread thread;
+
+        EventLoop(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+        }
+
+        /** 루프 스레드면 바로 실행, 다른 스레드면 작업 큐에 넣고 Selector 깨우기 */
+        void execute(Runnable task) {
+            if (Thread.currentThread() == thread) {
+                task.run();
+                return;
+            }
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void register(SocketChannel channel) {
+            execute(() -> {
+                try {
+                    NioConnection conn = new NioConnection(this, channel);
+                    conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+
+                    ClientHandler handler = new ClientHandler(conn, Server.clients, Server.rooms);
+                    conn.handler = handler;
+                    Server.clients.add(handler);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+
+            while (true) {
+                try {
+                    selector.select();
+                    runTasks();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+
+                        NioConnection conn = (NioConnection) key.attachment();
+                        if (!key.isValid()) {
+                            conn.close();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            conn.onReadable(readBuffer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            conn.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    Log.error(Log.Category.NET, "❗ 이벤트 루프 #{} 오류: {}", index, e.getMessage());
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Log.error(Log.Category.SERVER, "❗ 이벤트 루프 작업 오류", e);
+                }
+            }
+        }
+    }
+
+    /** NIO 연결 하나의 읽기 누적 버퍼 + 쓰기 대기열 */
+    static class NioConnection {
+
+        private final EventLoop loop;
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ClientHandler handler;
+
+        private final WireCodec.Decoder decoder = new WireCodec.Decoder();
+        private boolean negotiated = false;
+        private boolean binaryOut = false;
+
+        private final OutboundQueue outbound = new OutboundQueue();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        private ByteBuffer writing; // 소켓 버퍼가 차서 일부만 쓴 메시지
+        private volatile boolean closed = false;
+
+        NioConnection(EventLoop loop, SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+        }
+
+        /** 🔵 메시지 한 줄 전송 (어느 스레드에서든 호출 가능, 큐에 넣고 바로 반환) */
+        void send(OutboundMessage msg) {
+            if (closed) return;
+            if (!outbound.offer(msg)) {
+                Log.warn(Log.Category.NET, "🐢 느린 클라이언트 연결 끊음: {}", channel.socket().getRemoteSocketAddress());
+                loop.execute(this::close);
+                return;
+            }
+            // 이미 flush가 예약돼 있으면 작업을 또 넣지 않음
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(this::flush);
+            }
+        }
+
+        /** 송신 큐를 소켓 버퍼가 허용하는 만큼 기록, 남으면 OP_WRITE 대기 */
+        private void flush() {
+            flushScheduled.set(false);
+            if (closed) return;
+            try {
+                while (true) {
+                    if (writing == null) {
+                        OutboundMessage msg = outbound.poll();
+                        if (msg == null) break;
+                        writing = msg.buffer(binaryOut);
+                        if (msg.switchesToBinary()) binaryOut = true;
+                    }
+                    channel.write(writing);
+                    if (writing.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    writing = null;
+                }
+                key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        private void onReadable(ByteBuffer readBuffer) {
+            int n;
+            try {
+                readBuffer.clear();
+                n = channel.read(readBuffer);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            try {
+                while (readBuffer.hasRemaining()) {
+                    String line = decoder.feed(readBuffer.get());
+                    if (line == null) continue;
+
+                    if (!negotiated && WireCodec.isHello(line)) {
+                        negotiated = true;
+                        decoder.setBinary(handler.acceptHello(line));
+                        continue;
+                    }
+                    dispatch(line);
+                    if (closed) return;
+                }
+            } catch (IllegalArgumentException e) {
+                Log.warn(Log.Category.PROTOCOL, "❗ 잘못된 메시지 → 연결 종료: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void dispatch(String line) {
+            try {
+                handler.handleMessage(line);
+            } catch (RuntimeException e) {
+                // 명령 하나의 오류가 이벤트 루프 전체를 멈추지 않도록
+                Log.error(Log.Category.SERVER, "❗ 명령 처리 오류: {}", line, e);
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            outbound.close();
+            if (key != null) key.cancel();
+            closeQuietly(channel);
+            if (handler != null) handler.onDisconnect();
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,64 @@
+package server;
+
+import common.WireCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OutboundMessage - 보낼 메시지 하나 (변경 불가, 여러 연결이 공유)
+ * - 브로드캐스트할 때 한 번만 만들어 모든 수신자 큐에 같은 객체를 넣음
+ * - 텍스트/바이너리 바이트는 처음 필요할 때 한 번만 인코딩하고 이후 재사용
+ *   (수신자 N명이어도 UTF-8 인코딩은 프로토콜별로 최대 1번)
+ * - 바이트 배열은 절대 수정하지 않음 → 락 없이 여러 writer가 동시에 읽어도 안전
+ */
+final class OutboundMessage {
+
+    /** 송신 큐 넘침 정책에서 쓰는 메시지 분류 */
+    enum Kind { CHAT, ROOM_LIST, OTHER }
+
+    private final String text;
+    private final Kind kind;
+
+    // 지연 인코딩 캐시 (같은 값을 두 번 계산해도 결과가 같으므로 경쟁 상태여도 무해)
+    private volatile byte[] textBytes;
+    private volatile byte[] frameBytes;
+
+    OutboundMessage(String text) {
+        this.text = text;
+        this.kind = classify(text);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /** 이 메시지를 쓴 직후부터 바이너리 프레임으로 전환해야 하는지 (핸드셰이크 응답) */
+    boolean switchesToBinary() {
+        return WireCodec.HELLO_OK_BINARY.equals(text);
+    }
+
+    /** 🔵 프로토콜에 맞는 인코딩 결과 (공유 배열 — 수정 금지) */
+    byte[] bytes(boolean binary) {
+        if (binary) {
+            byte[] b = frameBytes;
+            if (b == null) frameBytes = b = WireCodec.encodeFrame(text);
+            return b;
+        }
+        byte[] b = textBytes;
+        if (b == null) textBytes = b = WireCodec.encodeText(text);
+        return b;
+    }
+
+    /** NIO용: 공유 배열 위의 읽기 전용 뷰 (position만 수신자별로 따로 가짐, 복사 없음) */
+    ByteBuffer buffer(boolean binary) {
+        return ByteBuffer.wrap(bytes(binary)).asReadOnlyBuffer();
+    }
+
+    private static Kind classify(String msg) {
+        if (msg.startsWith("ROOM_LIST|")) return Kind.ROOM_LIST;
+        if (msg.startsWith("CHAT|") || msg.startsWith("GHOST_CHAT|") || msg.startsWith("MAFIA_CHAT|")) {
+            return Kind.CHAT;
+        }
+        return Kind.OTHER;
+    }
+}
@@ -0,0 +1,184 @@
+package server;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OutboundQueue - 연결 하나의 송신 대기열 (크기 제한 있음)
+ * - send()는 큐에 넣기만 하고 바로 반환 → 느린 클라이언트가 브로드캐스트를 막지 않음
+ * - 실제 소켓 쓰기는 writer(블로킹 모드: 전용 스레드, NIO 모드: 이벤트 루프)가 담당
+ * - 큐가 가득 차면 설정된 정책 순서대로 처리 (채팅 버리기 → 방 목록 합치기 → 연결 끊기)
+ *
+ * 설정 (시스템 프로퍼티)
+ * - mafia.outbound.capacity : 연결당 최대 대기 메시지 수 (기본 512)
+ * - mafia.outbound.policy   : DROP_OLDEST_CHAT,COALESCE_ROOM_LIST,DISCONNECT 중 사용할 것들
+ */
+class OutboundQueue {
+
+    /** 큐가 가득 찼을 때 적용할 정책 */
+    enum OverflowPolicy {
+        COALESCE_ROOM_LIST, // 아직 안 보낸 ROOM_LIST는 새 ROOM_LIST로 대체
+        DROP_OLDEST_CHAT,   // 가장 오래된 채팅 메시지 버리기
+        DISCONNECT          // 그래도 자리가 없으면 연결 끊기 (끄면 새 메시지를 버림)
+    }
+
+    static final int DEFAULT_CAPACITY = Integer.getInteger("mafia.outbound.capacity", 512);
+    static final Set<OverflowPolicy> DEFAULT_POLICIES = parsePolicies(
+            System.getProperty("mafia.outbound.policy", "COALESCE_ROOM_LIST,DROP_OLDEST_CHAT,DISCONNECT"));
+
+    // 📊 서버 전체 지표
+    private static final AtomicLong totalDepth = new AtomicLong();
+    private static final AtomicInteger worstHighWater = new AtomicInteger(); // 연결 하나의 큐가 가장 깊었던 값
+    private static final AtomicLong totalDropped = new AtomicLong();
+    private static final AtomicLong totalCoalesced = new AtomicLong();
+    private static final AtomicLong totalDisconnects = new AtomicLong();
+
+    private final ArrayDeque<OutboundMessage> queue = new ArrayDeque<>();
+    private final int capacity;
+    private final Set<OverflowPolicy> policies;
+
+    // synchronized 대신 ReentrantLock → 가상 스레드 writer가 캐리어 스레드를 점유하지 않음
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private boolean closed = false;
+
+    // 📊 이 연결 큐의 최고 깊이 (넘을 때만 서버 전체 최대에 반영 → 메시지마다 공유 변수를 건드리지 않음)
+    private int highWater = 0;
+
+    OutboundQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_POLICIES);
+    }
+
+    OutboundQueue(int capacity, Set<OverflowPolicy> policies) {
+        this.capacity = Math.max(1, capacity);
+        this.policies = policies.isEmpty()
+                ? EnumSet.noneOf(OverflowPolicy.class)
+                : EnumSet.copyOf(policies);
+    }
+
+    /**
+     * 🔵 메시지 넣기
+     * @return false면 느린 클라이언트로 판단 → 호출 쪽에서 연결을 끊어야 함
+     */
+    boolean offer(OutboundMessage msg) {
+        lock.lock();
+        try {
+            if (closed) return true;
+
+            // 방 목록은 최신 것 하나만 의미 있음 → 대기 중인 이전 목록을 교체
+            if (policies.contains(OverflowPolicy.COALESCE_ROOM_LIST) && msg.kind() == OutboundMessage.Kind.ROOM_LIST
+                    && removeFirstMatching(OutboundMessage.Kind.ROOM_LIST)) {
+                totalCoalesced.incrementAndGet();
+            }
+
+            if (queue.size() >= capacity) {
+                if (policies.contains(OverflowPolicy.DROP_OLDEST_CHAT) && removeFirstMatching(OutboundMessage.Kind.CHAT)) {
+                    totalDropped.incrementAndGet();
+                } else if (policies.contains(OverflowPolicy.DISCONNECT)) {
+                    totalDisconnects.incrementAndGet();
+                    return false;
+                } else {
+                    // 자리가 없고 끊지도 않음 → 새 메시지를 버림
+                    totalDropped.incrementAndGet();
+                    return true;
+                }
+            }
+
+            queue.addLast(msg);
+            totalDepth.incrementAndGet();
+            if (queue.size() > highWater) {
+                highWater = queue.size();
+                worstHighWater.accumulateAndGet(highWater, Math::max);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** NIO 이벤트 루프용: 대기 중인 메시지 하나 꺼내기 (없으면 null) */
+    OutboundMessage poll() {
+        lock.lock();
+        try {
+            OutboundMessage msg = queue.pollFirst();
+            if (msg != null) totalDepth.decrementAndGet();
+            return msg;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 블로킹 writer용: 메시지가 올 때까지 기다렸다가 전부 꺼내기
+     * @return false면 큐가 닫힘 (writer 종료)
+     */
+    boolean drainTo(List<OutboundMessage> batch) throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            if (queue.isEmpty()) return false;
+
+            totalDepth.addAndGet(-queue.size());
+            batch.addAll(queue);
+            queue.clear();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 연결 종료 시 호출 → 대기 중인 writer 깨우고 남은 메시지 폐기 */
+    void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            totalDepth.addAndGet(-queue.size());
+            queue.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 📊 서버 전체 송신 큐 지표 한 줄 요약 */
+    static String metrics() {
+        return "송신 큐 합계=" + totalDepth.get()
+                + " | 연결별 최대 깊이=" + worstHighWater.get() + "/" + DEFAULT_CAPACITY
+                + " | 버림=" + totalDropped.get()
+                + " | 합침=" + totalCoalesced.get()
+                + " | 느린 연결 끊음=" + totalDisconnects.get();
+    }
+
+    /** 해당 종류의 가장 오래된 메시지 하나 제거 */
+    private boolean removeFirstMatching(OutboundMessage.Kind kind) {
+        Iterator<OutboundMessage> it = queue.iterator();
+        while (it.hasNext()) {
+            if (it.next().kind() == kind) {
+                it.remove();
+                totalDepth.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<OverflowPolicy> parsePolicies(String value) {
+        Set<OverflowPolicy> set = EnumSet.noneOf(OverflowPolicy.class);
+        for (String p : value.split(",")) {
+            if (p.trim().isEmpty()) continue;
+            try {
+                set.add(OverflowPolicy.valueOf(p.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                Log.warn(Log.Category.SERVER, "⚠ 알 수 없는 송신 큐 정책 무시: {}", p);
+            }
+        }
+        return set;
+    }
+}
@@ -0,0 +1,122 @@
+package server;
+
+import common.Room;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RoomExecutor - 방마다 작업 대기열(mailbox) 하나, 처리는 공용 작업 스레드 풀
+ * - 한 방의 게임 명령(투표/야간 행동/채팅...)과 페이즈 타이머 작업은 도착 순서대로 한 번에 하나씩 실행
+ *   → 같은 방의 게임 상태를 두 스레드가 동시에 건드리지 않음 (락 없이 안전)
+ * - 서로 다른 방은 다른 작업 스레드에서 동시에 실행 → 방이 많아도 코어를 나눠 씀
+ * - 한 방이 한 번에 오래 잡고 있지 않도록 최대 BATCH개 처리 후 풀에 다시 넣음
+ * - 대기열은 방을 만들 때(open) 하나만 만들고 삭제(remove) 뒤 들어온 작업은 버림
+ *   → 늦게 깨어난 타이머가 대기열을 새로 만들어 같은 방 작업이 두 스레드에서 동시에 도는 일이 없음
+ *
+ * 설정 (시스템 프로퍼티)
+ * - mafia.room.workers : 작업 스레드 수 (기본 CPU 코어 수)
+ */
+final class RoomExecutor {
+
+    static final int WORKERS = Integer.getInteger("mafia.room.workers", Runtime.getRuntime().availableProcessors());
+    private static final int BATCH = 64;
+
+    /** 방 하나의 작업 대기열 */
+    private static final class Mailbox implements Runnable {
+        final Room room;
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        Mailbox(Room room) {
+            this.room = room;
+        }
+
+        void post(Runnable task) {
+            queue.add(task);
+            submitted.incrementAndGet();
+            if (scheduled.compareAndSet(false, true)) pool.execute(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < BATCH; i++) {
+                    Runnable task = queue.poll();
+                    if (task == null) break;
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        Log.error(Log.Category.GAME, "❗ 방 작업 처리 오류 (방 #{})", room.getId(), e);
+                    }
+                    completed.incrementAndGet();
+                }
+            } finally {
+                scheduled.set(false);
+                // 내려놓은 뒤 다시 확인 → 그 사이 들어온 작업을 놓치지 않음
+                if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) pool.execute(this);
+            }
+        }
+    }
+
+    private static final AtomicInteger workerSeq = new AtomicInteger();
+    private static final ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, WORKERS), r -> {
+        Thread t = new Thread(r, "room-worker-" + workerSeq.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Map<Room, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    // 작업 스레드마다 명령 뷰 하나 (작업 스레드는 한 번에 방 작업 하나만 실행 → 방 작업 안에서 재사용해도 겹치지 않음)
+    private static final ThreadLocal<Command> scratch = ThreadLocal.withInitial(Command::new);
+
+    // 📊 지표
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private RoomExecutor() {}
+
+    /** 🔵 방 생성 → 대기열 만들기 (방마다 한 번) */
+    static void open(Room room) {
+        mailboxes.putIfAbsent(room, new Mailbox(room));
+    }
+
+    /** 🔵 방 작업 넣기 (바로 반환, 같은 방 작업끼리는 순서대로 하나씩 실행, 삭제된 방이면 버림) */
+    static void execute(Room room, Runnable task) {
+        Mailbox mailbox = mailboxes.get(room);
+        if (mailbox == null) {
+            dropped.incrementAndGet();
+            return;
+        }
+        mailbox.post(task);
+    }
+
+    /** 🔵 방 작업 안에서 쓸 재사용 명령 뷰 (작업이 끝나면 다음 작업이 덮어씀 → 밖으로 넘기지 말 것) */
+    static Command command(String line) {
+        return scratch.get().reset(line);
+    }
+
+    /** 🔵 방 삭제 → 대기열 제거 (이미 들어간 작업은 끝까지 실행됨, 이후 작업은 버림) */
+    static void remove(Room room) {
+        mailboxes.remove(room);
+    }
+
+    /** 📊 방 작업 지표 한 줄 요약 */
+    static String metrics() {
+        long done = completed.get();
+        return "방 작업 스레드=" + WORKERS
+                + " | 대기열=" + mailboxes.size()
+                + " | 처리=" + done
+                + " | 대기 중=" + (submitted.get() - done)
+                + " | 버림=" + dropped.get();
+    }
+}
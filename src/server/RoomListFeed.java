@@ -0,0 +1,209 @@
+package server;
+
+import common.Room;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RoomListFeed - 버전이 붙은 방 목록 변경 알림
+ * - 방이 바뀌면 표시만 해두고, 짧은 시간(기본 100ms) 모아서 한 번에 전송
+ *   (전송은 예약 스레드 하나에서 → 모을 때마다 스레드를 만들어 sleep 하지 않음)
+ *   → 같은 방이 여러 번 바뀌어도 마지막 상태 하나만 보냄
+ * - ROOM_SYNC를 보낸 클라이언트: 바뀐 방만 델타로 받음
+ *     ROOM_ADDED|버전|id|이름|현재인원|최대인원|잠금(0/1)|모드
+ *     ROOM_UPDATED|버전|(ROOM_ADDED와 같음)
+ *     ROOM_REMOVED|버전|id
+ * - ROOM_SYNC|마지막으로 받은 버전 → 그 뒤 델타를 다시 보내줌
+ *   (변경 기록에 없을 만큼 오래됐으면 전체 스냅샷: ROOM_SNAPSHOT|버전|개수, ROOM_ENTRY|..., ROOM_SNAPSHOT_END|버전)
+ *   ROOM_ENTRY 하나에 방 최대 256개 (방마다 id|이름|현재인원|최대인원|잠금|모드 6칸씩 반복)
+ * - ROOM_SYNC 대신 GET_ROOMS를 보낸 예전 클라이언트는 예전처럼 전체 ROOM_LIST를 받음 (역시 모아서 한 번)
+ *   (둘 다 안 보낸 연결은 받지 않음 → 접속 직후 검색 화면에 ROOM_LIST가 끼어들지 않음)
+ * - 로비 화면에 있는 연결에만 보냄 → 게임 중인 연결은 방 목록 트래픽을 받지 않음
+ *
+ * 설정 (시스템 프로퍼티)
+ * - mafia.roomlist.coalesceMs : 변경을 모으는 시간 (기본 100)
+ * - mafia.roomlist.logSize    : 다시 보내줄 수 있는 최근 델타 수 (기본 1024)
+ */
+final class RoomListFeed {
+
+    static final long COALESCE_MS = Long.getLong("mafia.roomlist.coalesceMs", 100);
+    static final int LOG_SIZE = Integer.getInteger("mafia.roomlist.logSize", 1024);
+    static final int ROOMS_PER_ENTRY = 256;
+
+    /** 변경 기록 한 건 */
+    private static final class Delta {
+        final long version;
+        final OutboundMessage msg;
+
+        Delta(long version, OutboundMessage msg) {
+            this.version = version;
+            this.msg = msg;
+        }
+    }
+
+    // 모아 보내기 예약 (서버 전체에 스레드 하나)
+    private static final ScheduledExecutorService flusher = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "room-list-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final RoomRegistry rooms;
+
+    // 아직 안 보낸 변경 (방 번호 → 방), 같은 방은 하나로 합쳐짐
+    private final Map<Integer, Room> dirty = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    // 로비 화면에 있는 연결들 (방 목록을 받는 대상)
+    private final Set<ClientHandler> lobby = ConcurrentHashMap.newKeySet();
+
+    // 아래 필드는 lock 안에서만 사용 (버전 순서 = 전송 순서 보장)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Integer> published = new HashSet<>();
+    private final ArrayDeque<Delta> log = new ArrayDeque<>();
+    private long version = 0;
+
+    RoomListFeed(RoomRegistry rooms) {
+        this.rooms = rooms;
+    }
+
+    /** 🔵 방이 생기거나 인원/설정이 바뀜 → 잠시 후 한 번에 전송 */
+    void changed(Room room) {
+        dirty.put(room.getId(), room);
+        scheduleFlush();
+    }
+
+    /** 🔵 방이 삭제됨 (RoomRegistry에서 먼저 제거한 뒤 호출) */
+    void removed(Room room) {
+        changed(room);
+    }
+
+    /** 🔵 로비 구독 (ROOM_SYNC → 델타, GET_ROOMS → 전체 ROOM_LIST, 아직 둘 다 없으면 안 보냄) */
+    void enterLobby(ClientHandler handler) {
+        lobby.add(handler);
+    }
+
+    /** 🔵 로비 구독 해제 (방 입장 / 연결 종료) */
+    void leaveLobby(ClientHandler handler) {
+        lobby.remove(handler);
+    }
+
+    /**
+     * 🔵 ROOM_SYNC 처리 → 델타 방식으로 로비 구독하고 since 이후 변경을 보내줌
+     * @param since 클라이언트가 마지막으로 반영한 버전 (처음이면 0)
+     */
+    void sync(ClientHandler handler, long since) {
+        lock.lock();
+        try {
+            // lock 안에서 등록 → 이 사이에 나간 델타를 놓치거나 두 번 받지 않음
+            handler.roomListDeltas = true;
+            lobby.add(handler);
+            if (since == version) return;
+
+            Delta oldest = log.peekFirst();
+            if (since > version || oldest == null || since < oldest.version - 1) {
+                sendSnapshot(handler);
+                return;
+            }
+            for (Delta d : log) {
+                if (d.version > since) handler.send(d.msg);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 현재 방 목록 버전 (ROOM_PAGE에 실어 보냄 → 클라이언트가 이 버전부터 ROOM_SYNC) */
+    long version() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) return;
+        flusher.schedule(this::flush, COALESCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** 모아둔 변경을 델타로 만들어 전송 */
+    private void flush() {
+        // 먼저 내려둠 → flush 도중 들어온 변경은 다음 flush가 처리
+        flushScheduled.set(false);
+
+        lock.lock();
+        try {
+            List<OutboundMessage> deltas = new ArrayList<>();
+            for (Integer id : dirty.keySet()) {
+                if (dirty.remove(id) == null) continue;
+
+                Room live = rooms.get(id);
+                String msg;
+                if (live == null || !rooms.isListed(id)) {
+                    // 삭제됐거나 게임이 끝나 목록에서 빠진 방
+                    if (!published.remove(id)) continue; // 보내기 전에 생겼다 사라진 방
+                    msg = "ROOM_REMOVED|" + (++version) + "|" + id;
+                } else {
+                    String type = published.add(id) ? "ROOM_ADDED|" : "ROOM_UPDATED|";
+                    msg = appendRoom(new StringBuilder(type).append(++version).append('|'), live).toString();
+                }
+
+                OutboundMessage out = new OutboundMessage(msg);
+                deltas.add(out);
+                log.addLast(new Delta(version, out));
+                if (log.size() > LOG_SIZE) log.removeFirst();
+            }
+            if (deltas.isEmpty()) return;
+
+            OutboundMessage list = null;
+            for (ClientHandler ch : lobby) {
+                if (ch.roomListDeltas) {
+                    for (OutboundMessage out : deltas) ch.send(out);
+                } else if (ch.legacyRoomList) {
+                    // 예전 클라이언트 → 전체 ROOM_LIST 한 번 (필요할 때 한 번만 만듦)
+                    if (list == null) list = new OutboundMessage(Server.roomListMessage());
+                    ch.send(list);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendSnapshot(ClientHandler handler) {
+        List<Room> snapshot = new ArrayList<>();
+        for (Room r : rooms.ordered()) {
+            if (published.contains(r.getId())) snapshot.add(r);
+        }
+
+        handler.send("ROOM_SNAPSHOT|" + version + "|" + snapshot.size());
+        // 방 여러 개를 한 메시지에 묶음 → 방이 많아도 송신 큐가 넘치지 않음
+        for (int i = 0; i < snapshot.size(); i += ROOMS_PER_ENTRY) {
+            StringBuilder sb = new StringBuilder("ROOM_ENTRY");
+            int end = Math.min(i + ROOMS_PER_ENTRY, snapshot.size());
+            for (int j = i; j < end; j++) {
+                appendRoom(sb.append('|'), snapshot.get(j));
+            }
+            handler.send(sb.toString());
+        }
+        handler.send("ROOM_SNAPSHOT_END|" + version);
+    }
+
+    /** id|이름|현재인원|최대인원|잠금|모드 (ROOM_PAGE도 같은 형식) */
+    static StringBuilder appendRoom(StringBuilder sb, Room r) {
+        return sb.append(r.getId()).append('|')
+                 .append(r.getName()).append('|')
+                 .append(r.getPlayers().size()).append('|')
+                 .append(r.getLimit()).append('|')
+                 .append(r.hasPassword() ? 1 : 0).append('|')
+                 .append(r.getMode());
+    }
+}
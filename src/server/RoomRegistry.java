@@ -0,0 +1,204 @@
+package server;
+
+import common.Room;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RoomRegistry - 서버의 방 목록 (방 번호 → Room)
+ * - 입장/플레이어 조회는 해시 조회 한 번 (방이 몇 개든 전역 락 없음)
+ * - 방 번호는 AtomicInteger로 발급 → 동시에 방을 만들어도 번호가 겹치지 않음
+ * - 목록 전송용으로 방 번호 순서가 유지되는 뷰를 따로 둠 (순회 중 추가/삭제돼도 안전)
+ * - 방 검색(ROOM_QUERY)용 보조 색인: (모드, 빈자리 있음, 비밀번호 없음) 조합마다 방 번호 순 목록
+ *   → 조건에 맞는 목록 몇 개만 번호 순으로 합쳐서 한 페이지 분량만 읽음 (전체 방을 훑지 않음)
+ *   → 끝난 게임 방은 색인에서 빠짐 (로비에 안 보임)
+ */
+final class RoomRegistry {
+
+    /** 방 모드 (CREATE_ROOM은 이 중 하나만 받음 → 색인 칸 수가 모드 수로 고정) */
+    static final List<String> MODES = List.of("CLASSIC", "SPECIAL");
+
+    private final Map<Integer, Room> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Room> ordered = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    // 보조 색인: 모드 → [조건 비트] → 방 번호 순 목록 (비트 1 = 빈자리 있음, 비트 2 = 비밀번호 없음)
+    // 모드마다 칸은 생성자에서 한 번만 만듦 (이후 추가 없음)
+    private static final int FREE = 1;
+    private static final int NO_PASSWORD = 2;
+    private final Map<String, ConcurrentSkipListMap<Integer, Room>[]> index = new HashMap<>();
+    // 방 번호 → 지금 들어 있는 색인 목록 (다시 색인할 때 이전 칸에서 빼기 위함)
+    private final Map<Integer, ConcurrentSkipListMap<Integer, Room>> indexedIn = new ConcurrentHashMap<>();
+    // 색인 변경끼리만 직렬화 (검색은 락 없이 읽음)
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RoomRegistry() {
+        for (String mode : MODES) {
+            ConcurrentSkipListMap<Integer, Room>[] buckets = new ConcurrentSkipListMap[4];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new ConcurrentSkipListMap<>();
+            index.put(mode, buckets);
+        }
+    }
+
+    /** 🔵 클라이언트가 보낸 모드 → 정해진 모드 이름 (대소문자 무시, 모르는 모드면 null) */
+    static String modeOf(String mode) {
+        for (String m : MODES) {
+            if (m.equalsIgnoreCase(mode)) return m;
+        }
+        return null;
+    }
+
+    /** 🔵 새 방 번호 발급 + 빈 방 생성 (등록은 설정을 마친 뒤 add로) */
+    Room newRoom(String name) {
+        return new Room(nextId.getAndIncrement(), name);
+    }
+
+    /** 🔵 방 등록 */
+    void add(Room room) {
+        // 목록 뷰에 먼저 넣음 → get으로 찾을 수 있는 방은 항상 목록에도 있음
+        ordered.put(room.getId(), room);
+        byId.put(room.getId(), room);
+        reindex(room, true);
+    }
+
+    /** 🔵 방 삭제 */
+    void remove(Room room) {
+        byId.remove(room.getId(), room);
+        ordered.remove(room.getId(), room);
+        reindex(room, false);
+    }
+
+    /**
+     * 🔵 방 상태(인원/비밀번호/모드/종료 여부)가 바뀌면 보조 색인 갱신
+     * @param listed false면 로비 검색에서 뺌 (끝난 게임 / 삭제된 방)
+     */
+    void reindex(Room room, boolean listed) {
+        int id = room.getId();
+        indexLock.lock();
+        try {
+            ConcurrentSkipListMap<Integer, Room> target = null;
+            ConcurrentSkipListMap<Integer, Room>[] buckets = index.get(room.getMode());
+            if (listed && byId.get(id) == room && buckets != null) {
+                // 게임이 시작된 방은 자리가 남아도 들어갈 수 없음 → 빈자리 없음으로 색인
+                boolean free = !room.isInGame() && room.getPlayers().size() < room.getLimit();
+                int bits = (free ? FREE : 0)
+                        | (room.hasPassword() ? 0 : NO_PASSWORD);
+                target = buckets[bits];
+            }
+
+            ConcurrentSkipListMap<Integer, Room> previous = indexedIn.get(id);
+            if (previous == target) return;
+            // 새 칸에 먼저 넣고 이전 칸에서 뺌 → 검색 도중에 방이 잠깐 사라져 보이지 않음
+            if (target != null) {
+                target.put(id, room);
+                indexedIn.put(id, target);
+            } else {
+                indexedIn.remove(id);
+            }
+            if (previous != null) previous.remove(id);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /** 로비 목록에 보이는 방인지 (끝난 게임이나 삭제된 방이면 false) */
+    boolean isListed(int id) {
+        return indexedIn.containsKey(id);
+    }
+
+    /**
+     * 🔵 방 검색 한 페이지 (방 번호 기준 커서 → 목록이 바뀌어도 페이지가 밀리지 않음)
+     * @param mode        null/빈 문자열이면 모든 모드
+     * @param newestFirst true면 번호 큰 순(최신), false면 작은 순
+     * @param cursor      이전 페이지의 마지막 방 번호 (첫 페이지면 0)
+     * @param page        결과를 담을 목록
+     * @return 다음 페이지 커서 (더 없으면 0)
+     */
+    int query(String mode, boolean freeOnly, boolean noPassword, boolean newestFirst,
+              int cursor, int pageSize, List<Room> page) {
+        // 조건에 맞는 칸들의 커서 이후 부분 (모드 2개 × 조건 4칸 = 최대 8개)
+        List<Iterator<Map.Entry<Integer, Room>>> sources = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentSkipListMap<Integer, Room>[]> e : index.entrySet()) {
+            if (mode != null && !mode.isEmpty() && !mode.equalsIgnoreCase(e.getKey())) continue;
+            ConcurrentSkipListMap<Integer, Room>[] buckets = e.getValue();
+            for (int bits = 0; bits < buckets.length; bits++) {
+                if (freeOnly && (bits & FREE) == 0) continue;
+                if (noPassword && (bits & NO_PASSWORD) == 0) continue;
+                ConcurrentNavigableMap<Integer, Room> part = newestFirst
+                        ? buckets[bits].headMap(cursor > 0 ? cursor : Integer.MAX_VALUE, false).descendingMap()
+                        : buckets[bits].tailMap(cursor, false);
+                sources.add(part.entrySet().iterator());
+            }
+        }
+
+        // 번호 순으로 합치기 (각 칸은 이미 정렬됨) → pageSize + 1개만 읽어서 다음 페이지 유무 판단
+        Comparator<Map.Entry<Integer, Room>> order = Map.Entry.comparingByKey();
+        if (newestFirst) order = order.reversed();
+        PriorityQueue<Map.Entry<Integer, Room>> heads = new PriorityQueue<>(Math.max(1, sources.size()), order);
+        Map<Map.Entry<Integer, Room>, Iterator<Map.Entry<Integer, Room>>> owner = new IdentityHashMap<>();
+        for (Iterator<Map.Entry<Integer, Room>> it : sources) {
+            advance(it, heads, owner);
+        }
+
+        int lastId = 0;
+        while (!heads.isEmpty()) {
+            Map.Entry<Integer, Room> head = heads.poll();
+            advance(owner.remove(head), heads, owner);
+            // 색인을 옮기는 순간에는 같은 방이 두 칸에 잠깐 있을 수 있음 → 중복 건너뜀
+            if (head.getKey() == lastId) continue;
+            if (page.size() == pageSize) return lastId;
+            page.add(head.getValue());
+            lastId = head.getKey();
+        }
+        return 0;
+    }
+
+    Room get(int id) {
+        return byId.get(id);
+    }
+
+    /** 🔵 문자열 방 번호로 찾기 (숫자가 아니거나 없으면 null) */
+    Room find(String id) {
+        int n = parseId(id);
+        return n < 0 ? null : byId.get(n);
+    }
+
+    /** 방 번호 순서 뷰 (약한 일관성 — 순회 중 변경돼도 예외 없음) */
+    Collection<Room> ordered() {
+        return ordered.values();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    private static void advance(Iterator<Map.Entry<Integer, Room>> it,
+                                PriorityQueue<Map.Entry<Integer, Room>> heads,
+                                Map<Map.Entry<Integer, Room>, Iterator<Map.Entry<Integer, Room>>> owner) {
+        if (it.hasNext()) {
+            Map.Entry<Integer, Room> next = it.next();
+            owner.put(next, it);
+            heads.add(next);
+        }
+    }
+
+    /** "12" → 12, 숫자가 아니면 -1 (예외/부분 문자열 없이) */
+    private static int parseId(String s) {
+        if (s == null) return -1;
+        int len = s.length();
+        if (len == 0 || len > 9) return -1;
+        int v = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+}
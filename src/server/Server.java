@@ -4,81 +4,185 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import common.Room;
 
 public class Server {
 
     private static final int PORT = 6000;
+    private static final long METRICS_INTERVAL_MS = 30_000;
 
-    // 전체 클라이언트 목록
-    protected static List<ClientHandler> clients =
-            Collections.synchronizedList(new ArrayList<>());
+    // 전체 클라이언트 목록 (동시성 Set → 순회할 때 락이 필요 없음)
+    protected static Set<ClientHandler> clients = ConcurrentHashMap.newKeySet();
 
-    // 방 목록
-    protected static List<Room> rooms =
-            Collections.synchronizedList(new ArrayList<>());
-    protected static int roomIdCounter = 1;
+    // 방 → (닉네임 → 연결) 라우팅 표
+    // - 방 단위 전송은 그 방 멤버만, 개인 메시지는 해시 조회 한 번으로 전달
+    // - 방 안에서 닉네임은 유일 (중복 입장은 거부)
+    private static final Map<Room, Map<String, ClientHandler>> roomMembers = new ConcurrentHashMap<>();
 
+    // 방 목록 (방 번호 → Room, 번호 순서 뷰 포함)
+    protected static final RoomRegistry rooms = new RoomRegistry();
+
+    // 방 목록 변경 알림 (버전 + 델타, 짧게 모아서 전송)
+    static final RoomListFeed roomFeed = new RoomListFeed(rooms);
+
+    // virtual 모드일 때 연결/페이즈 작업을 실행할 가상 스레드 Executor (그 외 모드는 null)
+    private static ExecutorService virtualExecutor;
+
+    /**
+     * 실행 인자로 전송 방식 선택
+     * - (없음) 또는 blocking : 연결마다 스레드 하나 (기존 방식)
+     * - nio [루프 수]        : Selector 이벤트 루프 (기본 루프 수 = CPU 코어 수)
+     * - virtual              : 연결마다 가상 스레드 하나 (JDK 21+)
+     */
     public static void main(String[] args) {
-        System.out.println("💡 서버 시작됨! PORT: " + PORT);
+        String transport = args.length >= 1 ? args[0] : "blocking";
+        Log.info(Log.Category.SERVER, "💡 서버 시작됨! PORT: {} | 전송 방식: {}", PORT, transport);
+        startMetricsReporter();
+
+        try {
+            if ("nio".equalsIgnoreCase(transport)) {
+                int loops = Runtime.getRuntime().availableProcessors();
+                if (args.length >= 2) {
+                    try {
+                        loops = Integer.parseInt(args[1]);
+                    } catch (NumberFormatException ignored) {}
+                }
+                new NioServer(PORT, loops).start();
+            } else if ("virtual".equalsIgnoreCase(transport)) {
+                virtualExecutor = VirtualThreads.newPerTaskExecutor();
+                if (virtualExecutor == null) {
+                    Log.warn(Log.Category.SERVER, "⚠ 이 JVM은 가상 스레드를 지원하지 않음 → blocking 모드로 실행");
+                }
+                runBlocking();
+            } else {
+                runBlocking();
+            }
+        } catch (IOException e) {
+            Log.error(Log.Category.SERVER, "❗ 서버 소켓 오류", e);
+        }
+    }
 
+    /** 연결마다 스레드 하나로 ClientHandler 실행 (virtual 모드면 가상 스레드) */
+    private static void runBlocking() throws IOException {
         try (ServerSocket serverSocket = new ServerSocket(PORT)) {
 
             while (true) {
                 Socket socket = serverSocket.accept();
-                System.out.println("✨ 클라이언트 연결됨: " + socket);
+                Log.info(Log.Category.NET, "✨ 클라이언트 연결됨: {}", socket);
 
                 ClientHandler handler = new ClientHandler(socket, clients, rooms);
                 clients.add(handler);
 
-                new Thread(handler).start();
+                startTask(handler);
             }
-
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
-    /** 🔵 방 ID로 Room 찾기 */
-    public static Room findRoomById(String id) {
-        synchronized (rooms) {
-            for (Room r : rooms) {
-                if (String.valueOf(r.getId()).equals(id)) {
-                    return r;
+    /** 📊 주기적으로 연결 수, 송신 큐, 방 작업, 페이즈 타이머 지표 출력 */
+    private static void startMetricsReporter() {
+        Thread reporter = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(METRICS_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
                 }
+                Log.info(Log.Category.SERVER, "📊 연결 {}개 | {} | {}", clients.size(), OutboundQueue.metrics(), Log.metrics());
+                Log.info(Log.Category.SERVER, "📊 게임 | {} | {}", RoomExecutor.metrics(), GameScheduler.metrics());
             }
+        }, "metrics");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    /** 🔵 백그라운드 작업 시작 (virtual 모드면 가상 스레드, 아니면 일반 스레드) */
+    public static void startTask(Runnable task) {
+        if (virtualExecutor != null) {
+            virtualExecutor.execute(task);
+        } else {
+            new Thread(task).start();
         }
-        return null;
     }
 
-    /** 🔵 전체 방 목록을 모든 클라이언트에게 전송 */
-    public static void broadcastRoomList() {
-        StringBuilder sb = new StringBuilder("ROOM_LIST|");
+    /**
+     * 🔵 방 입장 → 닉네임 라우팅 표에 등록
+     * @return false면 같은 방에 같은 닉네임을 쓰는 다른 연결이 이미 있음 (입장 거부)
+     */
+    public static boolean joinRoom(Room room, String nickname, ClientHandler handler) {
+        boolean[] joined = new boolean[1];
+        // compute 안에서 등록 → leaveRoom이 빈 표를 지우는 것과 겹쳐도 멤버가 사라지지 않음
+        roomMembers.compute(room, (r, members) -> {
+            if (members == null) members = new ConcurrentHashMap<>();
+            ClientHandler existing = members.putIfAbsent(nickname, handler);
+            joined[0] = existing == null || existing == handler;
+            return members;
+        });
+        return joined[0];
+    }
 
-        synchronized (rooms) {
-            for (Room r : rooms) {
-                // 비밀번호가 있으면 🔒 아이콘 추가
-                String lockIcon = r.hasPassword() ? "🔒 " : "";
-                sb.append(lockIcon)
-                  .append("#")
-                  .append(r.getId())
-                  .append(" ")
-                  .append(r.getName())
-                  .append(" (")
-                  .append(r.getPlayers().size())
-                  .append("/")
-                  .append(r.getLimit())
-                  .append("),");
-            }
-        }
+    /** 🔵 방 퇴장/연결 종료 → 라우팅 표에서 제거 (마지막 멤버면 항목 삭제) */
+    public static void leaveRoom(Room room, String nickname, ClientHandler handler) {
+        if (nickname == null) return;
+        roomMembers.computeIfPresent(room, (r, members) -> {
+            members.remove(nickname, handler); // 같은 연결일 때만 제거
+            return members.isEmpty() ? null : members;
+        });
+    }
 
-        String msg = sb.toString();
+    /** 🔵 방에 접속한 연결들 (O(방 인원), 순회 중 변경돼도 안전) */
+    public static Collection<ClientHandler> membersOf(Room room) {
+        if (room == null) return Collections.emptySet();
+        Map<String, ClientHandler> members = roomMembers.get(room);
+        return members != null ? members.values() : Collections.emptySet();
+    }
 
-        synchronized (clients) {
-            for (ClientHandler ch : clients) {
-                ch.send(msg);
-            }
+    /** 🔵 방 안에서 닉네임으로 연결 찾기 (해시 조회, 없으면 null) */
+    public static ClientHandler memberByNickname(Room room, String nickname) {
+        if (room == null || nickname == null) return null;
+        Map<String, ClientHandler> members = roomMembers.get(room);
+        return members != null ? members.get(nickname) : null;
+    }
+
+    /** 🔵 방 ID로 Room 찾기 */
+    public static Room findRoomById(String id) {
+        return rooms.find(id);
+    }
+
+    /** 🔵 방 목록에 보이는 정보(인원/설정)가 바뀜 → 구독자에게 델타 전송 예약 */
+    public static void roomChanged(Room room) {
+        rooms.reindex(room, !ClientHandler.isFinished(room));
+        roomFeed.changed(room);
+    }
+
+    /** 🔵 방 삭제 (목록에서 빼고 로비에 ROOM_REMOVED 예약) */
+    public static void removeRoom(Room room) {
+        rooms.remove(room);
+        roomFeed.removed(room);
+        RoomExecutor.remove(room);
+    }
+
+    /** 🔵 ROOM_LIST 메시지 만들기 (방 번호 순) */
+    static String roomListMessage() {
+        StringBuilder sb = new StringBuilder("ROOM_LIST|");
+        for (Room r : rooms.ordered()) {
+            if (!rooms.isListed(r.getId())) continue; // 끝난 게임 방은 숨김
+
+            // 비밀번호가 있으면 🔒 아이콘 추가
+            String lockIcon = r.hasPassword() ? "🔒 " : "";
+            sb.append(lockIcon)
+              .append("#")
+              .append(r.getId())
+              .append(" ")
+              .append(r.getName())
+              .append(" (")
+              .append(r.getPlayers().size())
+              .append("/")
+              .append(r.getLimit())
+              .append("),");
         }
+        return sb.toString();
     }
 }
\ No newline at end of file
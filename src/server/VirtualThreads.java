@@ -0,0 +1,39 @@
+package server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 가상 스레드 지원 유틸
+ * - JDK 21 이상이면 Executors.newVirtualThreadPerTaskExecutor() 사용
+ * - 그보다 낮은 JDK(예: 17)에서도 컴파일/실행되도록 리플렉션으로 찾음
+ */
+final class VirtualThreads {
+
+    private static final MethodHandle NEW_EXECUTOR = lookupExecutorFactory();
+
+    private VirtualThreads() {}
+
+    /** 작업마다 가상 스레드 하나를 만드는 Executor (미지원 JVM이면 null) */
+    static ExecutorService newPerTaskExecutor() {
+        if (NEW_EXECUTOR == null) return null;
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static MethodHandle lookupExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    java.util.concurrent.Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}